@@ -2,9 +2,15 @@ package io.github.kawaiicakes.clothing;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.logging.LogUtils;
+import io.github.kawaiicakes.clothing.client.ClothingOcclusion;
+import io.github.kawaiicakes.clothing.client.ClothingSearchIndex;
+import io.github.kawaiicakes.clothing.client.ClothingTints;
 import io.github.kawaiicakes.clothing.client.HumanoidClothingLayer;
 import io.github.kawaiicakes.clothing.client.model.ClothingItemModel;
 import io.github.kawaiicakes.clothing.client.model.ClothingMeshDefinitions;
+import io.github.kawaiicakes.clothing.client.model.ClothingModelManifest;
+import io.github.kawaiicakes.clothing.common.ClothingConfig;
+import io.github.kawaiicakes.clothing.common.ClothingValidator;
 import io.github.kawaiicakes.clothing.common.data.*;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
 import io.github.kawaiicakes.clothing.common.network.ClothingPackets;
@@ -26,7 +32,7 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.item.DyeableLeatherItem;
+import net.minecraft.world.inventory.InventoryMenu;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
@@ -36,11 +42,18 @@ import net.minecraftforge.common.data.ExistingFileHelper;
 import net.minecraftforge.data.event.GatherDataEvent;
 import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.OnDatapackSyncEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.event.entity.player.EntityItemPickupEvent;
+import net.minecraftforge.event.level.LevelEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.InterModComms;
 import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.event.lifecycle.InterModEnqueueEvent;
@@ -53,7 +66,7 @@ import top.theillusivec4.curios.api.client.CuriosRendererRegistry;
 import top.theillusivec4.curios.api.client.ICurioRenderer;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 import static io.github.kawaiicakes.clothing.ClothingRegistry.BLEACH_CAULDRON;
 import static io.github.kawaiicakes.clothing.ClothingRegistry.DRIPPING_BLEACH;
@@ -82,6 +95,10 @@ public class ClothingMod
 
         forgeEventBus.addListener(this::onAddReloadListener);
         forgeEventBus.addListener(this::onDatapackSync);
+        forgeEventBus.addListener(this::onEquipmentChange);
+        forgeEventBus.addListener(this::onItemPickup);
+
+        ModLoadingContext.get().registerConfig(ModConfig.Type.SERVER, ClothingConfig.SERVER_SPEC);
     }
 
     @SubscribeEvent
@@ -123,6 +140,19 @@ public class ClothingMod
         );
     }
 
+    /**
+     * Only posted on the logical server.
+     */
+    @SubscribeEvent
+    public void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        ClothingValidator.validateInPlace(event.getTo());
+    }
+
+    @SubscribeEvent
+    public void onItemPickup(EntityItemPickupEvent event) {
+        ClothingValidator.validateInPlace(event.getItem().getItem());
+    }
+
     @SubscribeEvent
     public void onInterModEnqueue(InterModEnqueueEvent event) {
         // this check is necessary as I'm unsure if this will cause issues on clients who do not have Curios installed.
@@ -190,10 +220,35 @@ public class ClothingMod
     @Mod.EventBusSubscriber(modid = MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
     public static class ClientEvents {
         @SubscribeEvent
-        public static void onClientPlayerNetworkEvent(ClientPlayerNetworkEvent event) {
-            if (event instanceof ClientPlayerNetworkEvent.Clone) return;
+        public static void onClientTick(TickEvent.ClientTickEvent event) {
+            if (event.phase != TickEvent.Phase.END) return;
+
+            ClothingSearchIndex.getInstance().rebuildIfDirty();
+
+            Player player = Minecraft.getInstance().player;
+            if (player != null) ClothingItemModel.Baked.warmUp(player);
+        }
+
+        @SubscribeEvent
+        public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+            if (!event.getLevel().isClientSide()) return;
+
+            HumanoidClothingLayer.discardRenderPlan(event.getEntity().getId());
+        }
+
+        /**
+         * Entities do not leave the client level one by one when it is unloaded; so every render plan is discarded
+         * with it, rather than kept until an entity of the next level happens to reuse its id.
+         */
+        @SubscribeEvent
+        public static void onLevelUnload(LevelEvent.Unload event) {
+            if (!event.getLevel().isClientSide()) return;
 
-            ClothingItemModel.Baked.flushModelCaches();
+            HumanoidClothingLayer.flushModelCaches();
+        }
+
+        @SubscribeEvent
+        public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
             HumanoidClothingLayer.flushModelCaches();
         }
     }
@@ -225,9 +280,7 @@ public class ClothingMod
 
         @SubscribeEvent
         public static void onRegisterItemColorHandlers(RegisterColorHandlersEvent.Item event) {
-            ItemColor handler = (pStack, pTintIndex) -> pTintIndex > 0
-                    ? ClothingItem.FALLBACK_COLOR
-                    : ((DyeableLeatherItem) pStack.getItem()).getColor(pStack);
+            ItemColor handler = ClothingTints.getInstance();
 
             event.register(handler, ClothingRegistry.getAllClothing());
             event.register(handler, ClothingRegistry.SPOOL.get());
@@ -241,6 +294,11 @@ public class ClothingMod
             );
         }
 
+        @SubscribeEvent
+        public static void onRegisterClientReloadListeners(RegisterClientReloadListenersEvent event) {
+            event.registerReloadListener(ClothingOcclusion.getInstance());
+        }
+
         @SubscribeEvent
         public static void onModelLoaderRegistration(ModelEvent.RegisterGeometryLoaders event) {
             event.register(ClothingItemModel.Loader.ID, ClothingItemModel.Loader.INSTANCE);
@@ -248,36 +306,39 @@ public class ClothingMod
 
         /**
          * Note: The models here are registered again in the event of a resource pack swap. No extra magic needed here.
+         * <br><br>
+         * Clothing models are read from the manifest of each pack where present; see {@link ClothingModelManifest}.
          */
         @SubscribeEvent
         public static void onModelRegistration(ModelEvent.RegisterAdditional event) {
             event.register(new ResourceLocation(MOD_ID, "item/overlay_pattern_base"));
 
-            Collection<Collection<ResourceLocation>> lists = new ArrayList<>();
             ResourceManager manager = Minecraft.getInstance().getResourceManager();
+            List<ResourceLocation> deferred = new ArrayList<>();
 
-            String[] locations = {
-                    "models/clothing",
-                    "models/item/clothing",
-                    "models/item/clothing/overlays"
-            };
+            for (ResourceLocation modelLocation : ClothingModelManifest.collectModels(manager)) {
+                if (ClothingItemModel.Baked.isDeferrable(modelLocation)) {
+                    deferred.add(modelLocation);
+                    continue;
+                }
 
-            for (String location : locations) {
-                lists.add(manager.listResources(
-                        location, (existing) -> existing.getPath().endsWith(".json")).keySet()
-                );
+                event.register(modelLocation);
             }
 
-            for (Collection<ResourceLocation> list : lists) {
-                for (ResourceLocation modelLocation : list) {
-                    String pathWithoutDuplicate = modelLocation.getPath().replace("models/", "");
-                    String pathWithoutSuffix = pathWithoutDuplicate.replace(".json", "");
-                    ResourceLocation withoutSuffix = new ResourceLocation(
-                            modelLocation.getNamespace(), pathWithoutSuffix
-                    );
-                    event.register(withoutSuffix);
-                }
-            }
+            ClothingItemModel.Baked.deferModels(deferred);
+        }
+
+        @SubscribeEvent
+        public static void onTextureStitch(TextureStitchEvent.Pre event) {
+            if (!event.getAtlas().location().equals(InventoryMenu.BLOCK_ATLAS)) return;
+
+            ResourceManager manager = Minecraft.getInstance().getResourceManager();
+            ClothingItemModel.Baked.getDeferredTextures(manager).forEach(event::addSprite);
+        }
+
+        @SubscribeEvent
+        public static void onBakingCompleted(ModelEvent.BakingCompleted event) {
+            ClothingItemModel.Baked.onBakingCompleted(event.getModelBakery());
         }
 
         @SubscribeEvent
@@ -348,30 +409,12 @@ public class ClothingMod
                             = event.getSkin(skinName);
                     if (playerRenderer == null) continue;
 
-                    final String p = "minecraft:player";
-                    final String ps = "minecraft:player_slim";
-
                     playerRenderer.addLayer(
                             new HumanoidClothingLayer<>(
                                     playerRenderer,
-                                    skinName.equals("default")
-                                            ? ClothingMeshDefinitions.getModelForEntityType(p, 0.30F, event)
-                                            : ClothingMeshDefinitions.getModelForEntityType(ps, 0.30F, event),
-                                    skinName.equals("default")
-                                            ? ClothingMeshDefinitions.getModelForEntityType(p, 0.31F, event)
-                                            : ClothingMeshDefinitions.getModelForEntityType(ps, 0.31F, event),
-                                    skinName.equals("default")
-                                            ? ClothingMeshDefinitions.getModelForEntityType(p, 0.32F, event)
-                                            : ClothingMeshDefinitions.getModelForEntityType(ps, 0.32F, event),
-                                    skinName.equals("default")
-                                            ? ClothingMeshDefinitions.getModelForEntityType(p, 0.33F, event)
-                                            : ClothingMeshDefinitions.getModelForEntityType(ps, 0.33F, event),
-                                    skinName.equals("default")
-                                            ? ClothingMeshDefinitions.getModelForEntityType(p, 0.80F, event)
-                                            : ClothingMeshDefinitions.getModelForEntityType(ps, 0.80F, event),
-                                    skinName.equals("default")
-                                            ? ClothingMeshDefinitions.getModelForEntityType(p, 1.30F, event)
-                                            : ClothingMeshDefinitions.getModelForEntityType(ps, 1.30F, event)
+                                    ClothingMeshDefinitions.meshFactoryForEntityType(
+                                            skinName.equals("default") ? "minecraft:player" : "minecraft:player_slim"
+                                    )
                             )
                     );
                 }
@@ -0,0 +1,89 @@
+package io.github.kawaiicakes.clothing.client;
+
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The versions client-side clothing caches are tagged with, so that a cached result is only discarded once something
+ * it was built from has actually changed; rather than on every connection to a server.
+ * <br><br>
+ * The resource generation is incremented whenever clothing resources (models, textures) are reloaded. Anything built
+ * from those is stale once it changes.
+ * <br><br>
+ * The catalogue version is incremented whenever the server sends clothing entries differing from those already known.
+ * Each entry also carries its own version, which is only incremented if that entry changed; so that caches built from
+ * unchanged entries carry over.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingCacheVersion {
+    protected static ClothingCacheVersion INSTANCE;
+
+    protected int resourceGeneration = 0;
+    protected int catalogueVersion = 0;
+    protected final Object2IntMap<ResourceLocation> entryVersions = new Object2IntOpenHashMap<>();
+
+    protected ClothingCacheVersion() {}
+
+    public static ClothingCacheVersion getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ClothingCacheVersion();
+        }
+
+        return INSTANCE;
+    }
+
+    public int getResourceGeneration() {
+        return this.resourceGeneration;
+    }
+
+    public void onResourcesReloaded() {
+        this.resourceGeneration++;
+    }
+
+    public int getCatalogueVersion() {
+        return this.catalogueVersion;
+    }
+
+    /**
+     * @return the version of the entry of the passed stack, or 0 if it is not a {@link ClothingItem}.
+     */
+    public int getEntryVersion(ItemStack stack) {
+        if (!(stack.getItem() instanceof ClothingItem clothingItem)) return 0;
+        return this.entryVersions.getInt(clothingItem.getClothingName(stack));
+    }
+
+    /**
+     * Compares the entries received from the server against those previously known and increments the version of
+     * every entry which was added, removed or changed.
+     */
+    public void onCatalogueReceived(
+            Map<ResourceLocation, ItemStack> previous, Map<ResourceLocation, ItemStack> received
+    ) {
+        Set<ResourceLocation> entryIds = new HashSet<>(previous.keySet());
+        entryIds.addAll(received.keySet());
+
+        boolean changed = false;
+
+        for (ResourceLocation entryId : entryIds) {
+            ItemStack previousStack = previous.get(entryId);
+            ItemStack receivedStack = received.get(entryId);
+
+            if (previousStack != null && receivedStack != null && ItemStack.matches(previousStack, receivedStack))
+                continue;
+
+            this.entryVersions.put(entryId, this.entryVersions.getInt(entryId) + 1);
+            changed = true;
+        }
+
+        if (changed) this.catalogueVersion++;
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.kawaiicakes.clothing.client;
+
+import com.google.common.collect.ImmutableList;
+import com.mojang.datafixers.util.Pair;
+import io.github.kawaiicakes.clothing.common.resources.ClothingEntryLoader;
+import io.github.kawaiicakes.clothing.common.resources.OverlayDefinitionLoader;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.fml.LogicalSide;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The client-side handling of the packets in {@link io.github.kawaiicakes.clothing.common.network.ClothingPackets}.
+ * These are only ever called through {@link net.minecraftforge.fml.DistExecutor}, so that the packet classes
+ * themselves do not reference anything which is absent on a dedicated server.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingClientPacketHandler {
+    public static void handleClothingEntries(Map<ResourceLocation, ItemStack> clothingEntries) {
+        ClothingEntryLoader clothingEntryLoader = ClothingEntryLoader.getInstance();
+        ClothingCacheVersion.getInstance().onCatalogueReceived(
+                clothingEntryLoader.getCatalogue(LogicalSide.CLIENT).getStacks(),
+                clothingEntries
+        );
+        clothingEntryLoader.setStacks(clothingEntries);
+        ClothingSearchIndex.getInstance().markDirty();
+        ClothingTints.getInstance().flushTints();
+    }
+
+    public static void handleClothingAppearance(int entityId, List<Pair<EquipmentSlot, ItemStack>> appearances) {
+        ClientLevel level = Minecraft.getInstance().level;
+        if (level == null) return;
+        if (!(level.getEntity(entityId) instanceof LivingEntity livingEntity)) return;
+
+        for (Pair<EquipmentSlot, ItemStack> pair : appearances) {
+            livingEntity.setItemSlot(pair.getFirst(), pair.getSecond());
+        }
+    }
+
+    public static void handleOverlays(ImmutableList<OverlayDefinitionLoader.OverlayDefinition> overlayDefinitions) {
+        new OverlayDefinitionLoader().addOverlays(overlayDefinitions);
+        ClothingSearchIndex.getInstance().markDirty();
+        ClothingTints.getInstance().flushTints();
+    }
+}
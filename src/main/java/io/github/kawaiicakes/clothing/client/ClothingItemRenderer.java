@@ -1,34 +1,67 @@
 package io.github.kawaiicakes.clothing.client;
 
+import com.google.common.collect.MapMaker;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
+import io.github.kawaiicakes.clothing.client.model.ClothingItemModel;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
 import io.github.kawaiicakes.clothing.common.item.OverlayPatternItem;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.color.item.ItemColors;
 import net.minecraft.client.renderer.BlockEntityWithoutLevelRenderer;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.ItemTransforms;
 import net.minecraft.client.renderer.entity.ItemRenderer;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.client.resources.model.ModelResourceLocation;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
 
 import static io.github.kawaiicakes.clothing.ClothingMod.MOD_ID;
 
 /**
- * There is no need to add this to a reload listener since I don't need the models the super bakes when reload occurs
+ * There is no need to add this to a reload listener since I don't need the models the super bakes when reload occurs.
+ * <br><br>
+ * Icons are drawn from an {@link IconPlan} resolved once per stack tag: the models, render types and tints of every
+ * pass, so that screens full of clothing render without decoding NBT each frame.
  */
 @OnlyIn(Dist.CLIENT)
 public class ClothingItemRenderer extends BlockEntityWithoutLevelRenderer {
+    protected static final ResourceLocation HAT_MODEL_LOCATION
+            = new ModelResourceLocation(new ResourceLocation(MOD_ID, "generic_hat"), "inventory");
+    protected static final ResourceLocation SHIRT_MODEL_LOCATION
+            = new ModelResourceLocation(new ResourceLocation(MOD_ID, "generic_shirt"), "inventory");
+    protected static final ResourceLocation PANTS_MODEL_LOCATION
+            = new ModelResourceLocation(new ResourceLocation(MOD_ID, "generic_pants"), "inventory");
+    protected static final ResourceLocation SHOES_MODEL_LOCATION
+            = new ModelResourceLocation(new ResourceLocation(MOD_ID, "generic_shoes"), "inventory");
+    protected static final ResourceLocation OVERLAY_PATTERN_MODEL_LOCATION
+            = new ModelResourceLocation(MOD_ID, "overlay_pattern", "inventory");
+    protected static final float[] BRIGHTNESS = {1.0F, 1.0F, 1.0F, 1.0F};
+
     private static ClothingItemRenderer INSTANCE;
 
+    /**
+     * Keyed by tag identity; the client replaces the tag of a stack whenever the server sends a changed one. Entries
+     * go away along with their tags.
+     */
+    protected final Map<CompoundTag, IconPlan> iconPlans = new MapMaker().weakKeys().makeMap();
+    protected final Map<Item, IconPlan> untaggedIconPlans = new IdentityHashMap<>();
+    protected final int[] lights = new int[4];
+
     private ClothingItemRenderer() {
         super(Minecraft.getInstance().getBlockEntityRenderDispatcher(), Minecraft.getInstance().getEntityModels());
         INSTANCE = this;
@@ -38,6 +71,15 @@ public class ClothingItemRenderer extends BlockEntityWithoutLevelRenderer {
         return INSTANCE != null ? INSTANCE : new ClothingItemRenderer();
     }
 
+    /**
+     * Discards every {@link IconPlan}. Plans are otherwise only rebuilt when the tag of their stack is replaced or
+     * when the base item models are reloaded.
+     */
+    public void flushIconPlans() {
+        this.iconPlans.clear();
+        this.untaggedIconPlans.clear();
+    }
+
     @Override
     @ParametersAreNonnullByDefault
     public void renderByItem(
@@ -48,21 +90,86 @@ public class ClothingItemRenderer extends BlockEntityWithoutLevelRenderer {
             int pPackedLight,
             int pPackedOverlay
     ) {
-        if (!(pStack.getItem() instanceof OverlayPatternItem) && !(pStack.getItem() instanceof ClothingItem)) return;
+        IconPlan plan = this.getIconPlan(pStack);
+        if (plan == null) return;
 
-        ResourceLocation baseModelLocation = pStack.getItem() instanceof ClothingItem clothingItem
-                ? entryModelLocation(clothingItem.getSlot())
-                : new ModelResourceLocation(MOD_ID, "overlay_pattern", "inventory");
-        BakedModel baseModel = Minecraft.getInstance().getModelManager().getModel(baseModelLocation);
+        PoseStack.Pose pose = pPoseStack.last();
+        Arrays.fill(this.lights, pPackedLight);
 
-        ItemRenderer itemRenderer = Minecraft.getInstance().getItemRenderer();
+        for (IconPass pass : plan.passes()) {
+            VertexConsumer vertexConsumer = ItemRenderer.getFoilBuffer(
+                    pBuffer, pass.renderType(), true, plan.glint()
+            );
 
-        for (BakedModel modelForPass : baseModel.getRenderPasses(pStack, false)) {
-            for (RenderType renderType : modelForPass.getRenderTypes(pStack, false)) {
-                VertexConsumer vertexConsumer = ItemRenderer.getFoilBuffer(
-                        pBuffer, renderType, true, pStack.hasFoil()
+            BakedQuad[] quads = pass.quads();
+            float[] tints = pass.tints();
+
+            for (int i = 0; i < quads.length; i++) {
+                vertexConsumer.putBulkData(
+                        pose, quads[i],
+                        BRIGHTNESS,
+                        tints[i * 3], tints[i * 3 + 1], tints[i * 3 + 2],
+                        this.lights, pPackedOverlay,
+                        true
                 );
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link IconPlan} for the passed stack; building it if the stack's tag has not been seen before or if
+     * the item models were reloaded since the plan was made.
+     * @return null if the passed stack is not rendered by this.
+     */
+    @Nullable
+    public IconPlan getIconPlan(ItemStack pStack) {
+        Item item = pStack.getItem();
+        if (!(item instanceof OverlayPatternItem) && !(item instanceof ClothingItem)) return null;
+
+        CompoundTag tag = pStack.getTag();
+        BakedModel baseModel = Minecraft.getInstance().getModelManager().getModel(baseModelLocation(item));
+
+        IconPlan existing = tag != null ? this.iconPlans.get(tag) : this.untaggedIconPlans.get(item);
+        if (existing != null && existing.item() == item) {
+            if (existing.baseModel() == baseModel) return existing;
+
+            // the item models were reloaded; anything resolved from the old ones is stale
+            ClothingItemModel.Baked.flushModelCaches();
+            this.flushIconPlans();
+        }
+
+        IconPlan toReturn = this.buildIconPlan(pStack, baseModel);
+
+        if (tag != null) {
+            this.iconPlans.put(tag, toReturn);
+        } else {
+            this.untaggedIconPlans.put(item, toReturn);
+        }
+
+        return toReturn;
+    }
 
+    protected IconPlan buildIconPlan(ItemStack pStack, BakedModel baseModel) {
+        ItemColors itemColors = Minecraft.getInstance().getItemColors();
+        RandomSource random = RandomSource.create();
+
+        List<IconPass> passes = new ArrayList<>();
+
+        for (BakedModel modelForPass : baseModel.getRenderPasses(pStack, false)) {
+            List<BakedQuad> quadList = new ArrayList<>();
+
+            for (Direction direction : Direction.values()) {
+                random.setSeed(42L);
+                quadList.addAll(modelForPass.getQuads(null, direction, random));
+            }
+
+            random.setSeed(42L);
+            quadList.addAll(modelForPass.getQuads(null, null, random));
+
+            BakedQuad[] quads = quadList.toArray(new BakedQuad[0]);
+            float[] tints = new float[quads.length * 3];
+
+            for (int i = 0; i < quads.length; i++) {
                 /*
                     it seems upon preliminary examination that the tint index corresponds to the layer of a texture
                     in an item model. the vanilla colour handlers in ItemColors are used to indicate what colour to
@@ -70,22 +177,34 @@ public class ClothingItemRenderer extends BlockEntityWithoutLevelRenderer {
                     white will be returned, thus permitting things like potions to have a coloured base (layer0)
                     and a non-coloured glass bottle (layer1)
                  */
-                itemRenderer.renderModelLists(
-                        modelForPass, pStack, pPackedLight, pPackedOverlay, pPoseStack, vertexConsumer
-                );
+                int color = quads[i].isTinted() ? itemColors.getColor(pStack, quads[i].getTintIndex()) : -1;
+
+                tints[i * 3] = (float) (color >> 16 & 255) / 255.0F;
+                tints[i * 3 + 1] = (float) (color >> 8 & 255) / 255.0F;
+                tints[i * 3 + 2] = (float) (color & 255) / 255.0F;
+            }
+
+            for (RenderType renderType : modelForPass.getRenderTypes(pStack, false)) {
+                passes.add(new IconPass(renderType, quads, tints));
             }
         }
+
+        return new IconPlan(pStack.getItem(), baseModel, pStack.hasFoil(), passes.toArray(new IconPass[0]));
+    }
+
+    protected static ResourceLocation baseModelLocation(Item item) {
+        return item instanceof ClothingItem clothingItem
+                ? entryModelLocation(clothingItem.getSlot())
+                : OVERLAY_PATTERN_MODEL_LOCATION;
     }
 
     public static ResourceLocation entryModelLocation(EquipmentSlot slot) {
-        String piece = switch (slot) {
-            case HEAD -> "generic_hat";
-            case LEGS -> "generic_pants";
-            case FEET -> "generic_shoes";
-            default -> "generic_shirt";
+        return switch (slot) {
+            case HEAD -> HAT_MODEL_LOCATION;
+            case LEGS -> PANTS_MODEL_LOCATION;
+            case FEET -> SHOES_MODEL_LOCATION;
+            default -> SHIRT_MODEL_LOCATION;
         };
-
-        return new ModelResourceLocation(new ResourceLocation(MOD_ID, piece), "inventory");
     }
 
     public static ResourceLocation entryModelLocation(ResourceLocation entryLocation) {
@@ -97,4 +216,15 @@ public class ClothingItemRenderer extends BlockEntityWithoutLevelRenderer {
                 overlayLocation.getNamespace(), "item/clothing/overlays/" + overlayLocation.getPath()
         );
     }
+
+    /**
+     * @param item the item this was resolved for; stacks of different items may share a tag.
+     * @param baseModel the base item model this was resolved from; used to detect model reloads.
+     */
+    public record IconPlan(Item item, BakedModel baseModel, boolean glint, IconPass[] passes) {}
+
+    /**
+     * @param tints the red, green and blue multipliers of each quad, in order.
+     */
+    public record IconPass(RenderType renderType, BakedQuad[] quads, float[] tints) {}
 }
@@ -0,0 +1,182 @@
+package io.github.kawaiicakes.clothing.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.mojang.blaze3d.platform.NativeImage;
+import com.mojang.logging.LogUtils;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.ModelPartReference;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Reads the alpha channel of every clothing mesh texture when resources are (re)loaded and records which
+ * {@link ModelPartReference}s each texture covers completely. {@link HumanoidClothingLayer} uses this to skip
+ * drawing strata that are hidden underneath an opaque stratum worn further out on the same part.
+ * <br><br>
+ * The UV regions checked are those of the cubes declared in
+ * {@link io.github.kawaiicakes.clothing.client.model.ClothingMeshDefinitions#genericMesh}; which, after texture
+ * scaling, is the vanilla 64 x 32 armour layout. Textures of any resolution are mapped proportionally onto it.
+ * Overlay textures are never considered since overlays can only add to what a mesh already covers.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingOcclusion
+        extends SimplePreparableReloadListener<ImmutableMap<ResourceLocation, Set<ModelPartReference>>> {
+    protected static final Logger LOGGER = LogUtils.getLogger();
+    protected static final String MESH_TEXTURE_DIRECTORY = "textures/models/clothing";
+    protected static final float LAYOUT_WIDTH = 64.0F;
+    protected static final float LAYOUT_HEIGHT = 32.0F;
+    /**
+     * The armour cutout shader discards any texel whose alpha is below 0.1; anything at or above it is drawn opaque.
+     */
+    protected static final int CUTOUT_ALPHA_THRESHOLD = 26;
+
+    protected static ClothingOcclusion INSTANCE;
+
+    protected ImmutableMap<ResourceLocation, Set<ModelPartReference>> opaqueParts = ImmutableMap.of();
+
+    protected ClothingOcclusion() {}
+
+    public static ClothingOcclusion getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ClothingOcclusion();
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * @param textureLocation the texture location as stored in a
+     *                        {@link io.github.kawaiicakes.clothing.common.data.ClothingLayer}.
+     * @return the parts on which the passed mesh texture has no transparent texels. Empty if the texture was not
+     *          found or is not fully opaque on any part.
+     */
+    public Set<ModelPartReference> getOpaqueParts(ResourceLocation textureLocation) {
+        return this.opaqueParts.getOrDefault(textureLocation, Set.of());
+    }
+
+    public boolean isOpaque(ResourceLocation textureLocation, ModelPartReference part) {
+        return this.getOpaqueParts(textureLocation).contains(part);
+    }
+
+    @Override
+    @NotNull
+    @ParametersAreNonnullByDefault
+    protected ImmutableMap<ResourceLocation, Set<ModelPartReference>> prepare(
+            ResourceManager pResourceManager, ProfilerFiller pProfiler
+    ) {
+        ImmutableMap.Builder<ResourceLocation, Set<ModelPartReference>> builder = ImmutableMap.builder();
+
+        Map<ResourceLocation, Resource> textures = pResourceManager.listResources(
+                MESH_TEXTURE_DIRECTORY,
+                (location) -> location.getPath().endsWith(".png") && !location.getPath().contains("/overlays/")
+        );
+
+        for (Map.Entry<ResourceLocation, Resource> entry : textures.entrySet()) {
+            try (InputStream stream = entry.getValue().open(); NativeImage image = NativeImage.read(stream)) {
+                Set<ModelPartReference> opaque = opaquePartsOf(image);
+                if (opaque.isEmpty()) continue;
+
+                builder.put(textureLocationOf(entry.getKey()), Collections.unmodifiableSet(opaque));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Unable to read clothing texture '{}' for occlusion!", entry.getKey(), e);
+            }
+        }
+
+        return builder.buildOrThrow();
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void apply(
+            ImmutableMap<ResourceLocation, Set<ModelPartReference>> pObject,
+            ResourceManager pResourceManager,
+            ProfilerFiller pProfiler
+    ) {
+        this.opaqueParts = pObject;
+        ClothingCacheVersion.getInstance().onResourcesReloaded();
+        HumanoidClothingLayer.flushModelCaches();
+        ClothingTints.getInstance().flushTints();
+
+        LOGGER.info("Found {} clothing textures occluding at least one model part!", pObject.size());
+    }
+
+    /**
+     * Inverse of {@link HumanoidClothingLayer#getMeshResource(ResourceLocation)}.
+     */
+    public static ResourceLocation textureLocationOf(ResourceLocation fileLocation) {
+        String path = fileLocation.getPath();
+        return new ResourceLocation(
+                fileLocation.getNamespace(),
+                path.substring(MESH_TEXTURE_DIRECTORY.length() + 1, path.length() - ".png".length())
+        );
+    }
+
+    public static EnumSet<ModelPartReference> opaquePartsOf(NativeImage image) {
+        EnumSet<ModelPartReference> toReturn = EnumSet.noneOf(ModelPartReference.class);
+
+        for (ModelPartReference part : ModelPartReference.values()) {
+            if (isOpaque(image, faceRegions(part))) toReturn.add(part);
+        }
+
+        return toReturn;
+    }
+
+    /**
+     * @return the six UV rectangles of the cube belonging to the passed part as <code>{x0, y0, x1, y1}</code> in the
+     *          64 x 32 layout.
+     */
+    public static int[][] faceRegions(ModelPartReference part) {
+        return switch (part) {
+            case HEAD -> boxRegions(0, 0, 8, 8, 8);
+            case HAT -> boxRegions(32, 0, 8, 8, 8);
+            case BODY -> boxRegions(16, 16, 8, 12, 4);
+            case RIGHT_ARM, LEFT_ARM -> boxRegions(40, 16, 4, 12, 4);
+            case RIGHT_LEG, LEFT_LEG -> boxRegions(0, 16, 4, 12, 4);
+        };
+    }
+
+    /**
+     * Mirrors the face layout of {@link net.minecraft.client.model.geom.ModelPart.Cube}.
+     */
+    protected static int[][] boxRegions(int u, int v, int width, int height, int depth) {
+        return new int[][] {
+                {u + depth, v, u + depth + width, v + depth},
+                {u + depth + width, v, u + depth + 2 * width, v + depth},
+                {u, v + depth, u + depth, v + depth + height},
+                {u + depth, v + depth, u + depth + width, v + depth + height},
+                {u + depth + width, v + depth, u + 2 * depth + width, v + depth + height},
+                {u + 2 * depth + width, v + depth, u + 2 * depth + 2 * width, v + depth + height}
+        };
+    }
+
+    protected static boolean isOpaque(NativeImage image, int[][] regions) {
+        float scaleX = image.getWidth() / LAYOUT_WIDTH;
+        float scaleY = image.getHeight() / LAYOUT_HEIGHT;
+
+        for (int[] region : regions) {
+            int x0 = (int) Math.floor(region[0] * scaleX);
+            int y0 = (int) Math.floor(region[1] * scaleY);
+            int x1 = Math.min((int) Math.ceil(region[2] * scaleX), image.getWidth());
+            int y1 = Math.min((int) Math.ceil(region[3] * scaleY), image.getHeight());
+
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    if (NativeImage.getA(image.getPixelRGBA(x, y)) < CUTOUT_ALPHA_THRESHOLD) return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
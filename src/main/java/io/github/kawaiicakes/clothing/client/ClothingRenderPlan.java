@@ -0,0 +1,174 @@
+package io.github.kawaiicakes.clothing.client;
+
+import com.google.common.collect.ImmutableList;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.ModelPartReference;
+import net.minecraft.client.model.HumanoidModel;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything {@link HumanoidClothingLayer} needs to draw the clothing worn by one entity, resolved ahead of time from
+ * the NBT of the worn {@link ItemStack}s. A plan is rebuilt only when the equipment of its entity changes or
+ * when the caches are flushed; so that rendering a dressed entity is little more than walking a few short lists.
+ * <br><br>
+ * Vanilla only posts {@link net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent} on the logical server,
+ * so equipment changes are detected here by identity instead: the client replaces the {@link ItemStack} (or its tag)
+ * whenever the server sends new equipment.
+ * <br><br>
+ * A plan is tagged with the resource generation and the versions of the clothing entries of its stacks as per
+ * {@link ClothingCacheVersion}. A new catalogue from the server only invalidates plans whose entries changed.
+ * @see HumanoidClothingLayer#getRenderPlan(LivingEntity)
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingRenderPlan<A extends HumanoidModel<?>> {
+    /**
+     * The number of plans for stacks outside the armour slots (i.e. Curios) kept per entity.
+     */
+    protected static final int MAX_EXTRA_PLANS = 8;
+
+    protected final HumanoidClothingLayer<?, ?, ?> owner;
+    protected final int generation;
+    protected final EquipmentSlot[] slots;
+    protected final ItemStack[] sources;
+    protected final CompoundTag[] sourceTags;
+    protected final int[] entryVersions;
+    protected int catalogueVersion;
+    protected final int[] occludingStrata;
+    protected final List<StackPlan<A>> armor;
+    protected final List<StackPlan<A>> extra = new ArrayList<>();
+    @Nullable
+    protected ClothingVertexCache vertexCache;
+
+    public ClothingRenderPlan(
+            HumanoidClothingLayer<?, ?, ?> owner,
+            int generation,
+            EquipmentSlot[] slots,
+            ItemStack[] sources,
+            int[] occludingStrata,
+            List<StackPlan<A>> armor
+    ) {
+        this.owner = owner;
+        this.generation = generation;
+        this.slots = slots;
+        this.sources = sources;
+        this.sourceTags = new CompoundTag[sources.length];
+        this.entryVersions = new int[sources.length];
+
+        ClothingCacheVersion versions = ClothingCacheVersion.getInstance();
+        for (int i = 0; i < sources.length; i++) {
+            this.sourceTags[i] = sources[i].getTag();
+            this.entryVersions[i] = versions.getEntryVersion(sources[i]);
+        }
+        this.catalogueVersion = versions.getCatalogueVersion();
+        this.occludingStrata = occludingStrata;
+        this.armor = ImmutableList.copyOf(armor);
+    }
+
+    /**
+     * @return whether this plan may still be used to render the passed entity with the passed layer.
+     */
+    public boolean isValidFor(HumanoidClothingLayer<?, ?, ?> layer, LivingEntity entity, int generation) {
+        if (this.owner != layer || this.generation != generation) return false;
+
+        for (int i = 0; i < this.slots.length; i++) {
+            ItemStack current = entity.getItemBySlot(this.slots[i]);
+            if (current != this.sources[i] || current.getTag() != this.sourceTags[i]) return false;
+        }
+
+        ClothingCacheVersion versions = ClothingCacheVersion.getInstance();
+        if (this.catalogueVersion == versions.getCatalogueVersion()) return true;
+
+        for (int i = 0; i < this.sources.length; i++) {
+            if (versions.getEntryVersion(this.sources[i]) != this.entryVersions[i]) return false;
+        }
+
+        // none of the entries this was built from changed
+        this.catalogueVersion = versions.getCatalogueVersion();
+        return true;
+    }
+
+    public int[] getOccludingStrata() {
+        return this.occludingStrata;
+    }
+
+    /**
+     * @return the plans for the armour slots in render order. Slots without renderable clothing are omitted.
+     */
+    public List<StackPlan<A>> getArmor() {
+        return this.armor;
+    }
+
+    /**
+     * @return the recorded vertices of the armour in this plan. Created on first use, since only entities that use
+     *          {@link HumanoidClothingLayer#usesVertexCache(LivingEntity)} need one.
+     */
+    public ClothingVertexCache getVertexCache() {
+        if (this.vertexCache == null) {
+            this.vertexCache = new ClothingVertexCache();
+        }
+
+        return this.vertexCache;
+    }
+
+    /**
+     * @return the plan for a stack rendered on this entity from outside its armour slots, if one was made.
+     */
+    @Nullable
+    public StackPlan<A> getExtra(ItemStack stack) {
+        for (int i = 0; i < this.extra.size(); i++) {
+            StackPlan<A> plan = this.extra.get(i);
+            if (plan.stack() == stack && plan.tag() == stack.getTag()) return plan;
+        }
+
+        return null;
+    }
+
+    public void addExtra(StackPlan<A> plan) {
+        if (this.extra.size() >= MAX_EXTRA_PLANS) this.extra.remove(0);
+        this.extra.add(plan);
+    }
+
+    /**
+     * The resolved render instructions for a single clothing {@link ItemStack}.
+     * @param stack the stack this was resolved from.
+     * @param tag the tag of the stack at the time this was resolved; used to detect replacement.
+     * @param meshPasses the strata to draw, innermost first.
+     * @param bakedModels the baked models to draw on each part, with missing models already replaced.
+     */
+    public record StackPlan<A extends HumanoidModel<?>>(
+            ItemStack stack,
+            @Nullable CompoundTag tag,
+            EquipmentSlot slot,
+            boolean glint,
+            List<MeshPass<A>> meshPasses,
+            Map<ModelPartReference, BakedModel> bakedModels
+    ) {}
+
+    /**
+     * One stratum of a stack along with its overlays, which are drawn onto the same model right after it.
+     * @param model the model to draw on; may be shared between strata.
+     * @param visibleParts the parts shown for this stratum after occlusion.
+     */
+    public record MeshPass<A extends HumanoidModel<?>>(
+            MeshStratum stratum,
+            A model,
+            ModelPartReference[] visibleParts,
+            RenderType renderType,
+            float red, float green, float blue,
+            List<OverlayPass> overlays
+    ) {}
+
+    public record OverlayPass(RenderType renderType, float red, float green, float blue) {}
+}
@@ -0,0 +1,58 @@
+package io.github.kawaiicakes.clothing.client;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.searchtree.SearchRegistry;
+import net.minecraft.core.NonNullList;
+import net.minecraft.core.Registry;
+import net.minecraft.world.item.CreativeModeTab;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/**
+ * Keeps the creative search trees in step with the clothing catalogue. Vanilla only indexes the creative inventory
+ * when resources or tags are reloaded, which need not happen after the server sends its clothing entries and overlays.
+ * <br><br>
+ * The trees are rebuilt at most once per tick however many catalogue packets arrived in it. Indexing reads the names
+ * and lore of every clothing stack; the latter is cached per stack by
+ * {@link io.github.kawaiicakes.clothing.common.item.ClothingItem#getTooltipLines(ItemStack)} and the stacks
+ * themselves are only copied from the catalogue, so a rebuild costs little more than the search trees themselves.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingSearchIndex {
+    protected static ClothingSearchIndex INSTANCE;
+
+    protected boolean dirty = false;
+
+    protected ClothingSearchIndex() {}
+
+    public static ClothingSearchIndex getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ClothingSearchIndex();
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Called whenever the catalogue changes. The rebuild happens on the next call to {@link #rebuildIfDirty()}.
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    public void rebuildIfDirty() {
+        if (!this.dirty) return;
+        this.dirty = false;
+
+        NonNullList<ItemStack> stacks = NonNullList.create();
+        for (Item item : Registry.ITEM) {
+            item.fillItemCategory(CreativeModeTab.TAB_SEARCH, stacks);
+        }
+
+        Minecraft minecraft = Minecraft.getInstance();
+        minecraft.populateSearchTree(SearchRegistry.CREATIVE_NAMES, stacks);
+        minecraft.populateSearchTree(SearchRegistry.CREATIVE_TAGS, stacks);
+    }
+}
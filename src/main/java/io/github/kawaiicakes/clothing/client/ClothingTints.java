@@ -0,0 +1,97 @@
+package io.github.kawaiicakes.clothing.client;
+
+import com.google.common.collect.MapMaker;
+import io.github.kawaiicakes.clothing.client.model.ClothingItemModel;
+import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import net.minecraft.client.color.item.ItemColor;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.DyeableLeatherItem;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link ItemColor} of every dyeable item in this mod. The colour of every tint index of a stack is resolved
+ * from its NBT once and kept in a table for as long as the stack's tag is; so that tinting a quad is an array lookup.
+ * <br><br>
+ * Tint index 0 is the colour of the item as per {@link DyeableLeatherItem#getColor(ItemStack)}. For
+ * {@link ClothingItem}s, index <code>i</code> past it is the colour of the <code>i</code>th overlay merged into the
+ * icon; see {@link ClothingItemModel.Merged}.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingTints implements ItemColor {
+    protected static ClothingTints INSTANCE;
+
+    /**
+     * Keyed by tag identity; as in {@link ClothingItemRenderer}.
+     */
+    protected final Map<CompoundTag, int[]> tints = new MapMaker().weakKeys().makeMap();
+    protected final Map<Item, int[]> untaggedTints = new IdentityHashMap<>();
+
+    protected ClothingTints() {}
+
+    public static ClothingTints getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ClothingTints();
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * Discards every table. The overlays merged into an icon depend on the loaded resources and the overlays and
+     * entries received from the server, so this is called whenever any of those change.
+     */
+    public void flushTints() {
+        this.tints.clear();
+        this.untaggedTints.clear();
+    }
+
+    @Override
+    public int getColor(@NotNull ItemStack pStack, int pTintIndex) {
+        int[] table = this.getTints(pStack);
+        return pTintIndex >= 0 && pTintIndex < table.length ? table[pTintIndex] : ClothingItem.FALLBACK_COLOR;
+    }
+
+    /**
+     * @return the colour of every tint index of the passed stack, in order.
+     */
+    public int[] getTints(ItemStack pStack) {
+        CompoundTag tag = pStack.getTag();
+
+        int[] existing = tag != null ? this.tints.get(tag) : this.untaggedTints.get(pStack.getItem());
+        if (existing != null) return existing;
+
+        int[] toReturn = buildTints(pStack);
+
+        if (tag != null) {
+            this.tints.put(tag, toReturn);
+        } else {
+            this.untaggedTints.put(pStack.getItem(), toReturn);
+        }
+
+        return toReturn;
+    }
+
+    protected static int[] buildTints(ItemStack pStack) {
+        if (!(pStack.getItem() instanceof DyeableLeatherItem dyeable)) return new int[] {ClothingItem.FALLBACK_COLOR};
+        if (!(pStack.getItem() instanceof ClothingItem clothingItem)) return new int[] {dyeable.getColor(pStack)};
+
+        List<ClothingLayer> overlays = ClothingItemModel.Baked.getIconOverlays(clothingItem, pStack);
+        int[] toReturn = new int[overlays.size() + 1];
+
+        toReturn[0] = clothingItem.getColor(pStack);
+        for (int i = 0; i < overlays.size(); i++) {
+            toReturn[i + 1] = overlays.get(i).color();
+        }
+
+        return toReturn;
+    }
+}
@@ -0,0 +1,274 @@
+package io.github.kawaiicakes.clothing.client;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.math.Vector3f;
+import com.mojang.math.Vector4f;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import net.minecraft.client.model.HumanoidModel;
+import net.minecraft.client.model.geom.ModelPart;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the clothing vertices of one entity exactly as they were emitted by {@link HumanoidClothingLayer}, minus the
+ * transform of the {@link PoseStack} passed to the layer. Entities whose pose rarely changes (armour stands) are
+ * recorded once and then replayed every frame under the current {@link PoseStack}, which skips re-posing and
+ * re-compiling every cube of every stratum.
+ * <br><br>
+ * A recording remains valid for as long as the pose of the parent model and the packed light are unchanged. Equipment
+ * changes are handled by the owning {@link ClothingRenderPlan}, which is replaced along with this.
+ * <br><br>
+ * Buffers are recorded in the order they were requested so that overlays are still drawn after the mesh beneath them.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingVertexCache implements MultiBufferSource {
+    /**
+     * x, y, z, red, green, blue, alpha, u, v, overlay, light, normal x, normal y, normal z
+     */
+    protected static final int VERTEX_SIZE = 14;
+    protected static final int POSE_SIZE = 6;
+
+    protected final float[] poseKey = new float[7 * POSE_SIZE];
+    protected boolean young;
+    protected int packedLight;
+    protected boolean recorded = false;
+
+    protected final List<Segment> segments = new ArrayList<>();
+
+    protected final Vector4f position = new Vector4f();
+    protected final Vector3f normal = new Vector3f();
+
+    /**
+     * @return whether the recording may be replayed for a parent model in the passed pose and the passed light.
+     */
+    public boolean isValidFor(HumanoidModel<?> parentModel, int packedLight) {
+        if (!this.recorded || this.packedLight != packedLight || this.young != parentModel.young) return false;
+
+        return this.matches(0, parentModel.head)
+                && this.matches(1, parentModel.hat)
+                && this.matches(2, parentModel.body)
+                && this.matches(3, parentModel.rightArm)
+                && this.matches(4, parentModel.leftArm)
+                && this.matches(5, parentModel.rightLeg)
+                && this.matches(6, parentModel.leftLeg);
+    }
+
+    /**
+     * Discards the existing recording and prepares this to record anew. Render to this as a {@link MultiBufferSource}
+     * using an identity {@link PoseStack} afterwards.
+     */
+    public void begin(HumanoidModel<?> parentModel, int packedLight) {
+        this.segments.clear();
+        this.packedLight = packedLight;
+        this.young = parentModel.young;
+
+        this.store(0, parentModel.head);
+        this.store(1, parentModel.hat);
+        this.store(2, parentModel.body);
+        this.store(3, parentModel.rightArm);
+        this.store(4, parentModel.leftArm);
+        this.store(5, parentModel.rightLeg);
+        this.store(6, parentModel.leftLeg);
+
+        this.recorded = true;
+    }
+
+    @Override
+    public @NotNull VertexConsumer getBuffer(@NotNull RenderType pRenderType) {
+        if (!this.segments.isEmpty()) {
+            Segment last = this.segments.get(this.segments.size() - 1);
+            if (last.renderType == pRenderType) return last;
+        }
+
+        Segment toReturn = new Segment(pRenderType);
+        this.segments.add(toReturn);
+
+        return toReturn;
+    }
+
+    /**
+     * Emits the recorded vertices to the passed buffer source, transformed by the passed pose.
+     */
+    public void replay(PoseStack.Pose pose, MultiBufferSource pBuffer) {
+        for (int i = 0; i < this.segments.size(); i++) {
+            Segment segment = this.segments.get(i);
+            if (segment.data.isEmpty()) continue;
+
+            VertexConsumer consumer = pBuffer.getBuffer(segment.renderType);
+            float[] data = segment.data.elements();
+
+            for (int j = 0; j < segment.data.size(); j += VERTEX_SIZE) {
+                this.position.set(data[j], data[j + 1], data[j + 2], 1.0F);
+                this.position.transform(pose.pose());
+                this.normal.set(data[j + 11], data[j + 12], data[j + 13]);
+                this.normal.transform(pose.normal());
+
+                consumer.vertex(
+                        this.position.x(), this.position.y(), this.position.z(),
+                        data[j + 3], data[j + 4], data[j + 5], data[j + 6],
+                        data[j + 7], data[j + 8],
+                        Float.floatToRawIntBits(data[j + 9]),
+                        Float.floatToRawIntBits(data[j + 10]),
+                        this.normal.x(), this.normal.y(), this.normal.z()
+                );
+            }
+        }
+    }
+
+    protected boolean matches(int index, ModelPart part) {
+        int i = index * POSE_SIZE;
+        return this.poseKey[i] == part.x
+                && this.poseKey[i + 1] == part.y
+                && this.poseKey[i + 2] == part.z
+                && this.poseKey[i + 3] == part.xRot
+                && this.poseKey[i + 4] == part.yRot
+                && this.poseKey[i + 5] == part.zRot;
+    }
+
+    protected void store(int index, ModelPart part) {
+        int i = index * POSE_SIZE;
+        this.poseKey[i] = part.x;
+        this.poseKey[i + 1] = part.y;
+        this.poseKey[i + 2] = part.z;
+        this.poseKey[i + 3] = part.xRot;
+        this.poseKey[i + 4] = part.yRot;
+        this.poseKey[i + 5] = part.zRot;
+    }
+
+    /**
+     * Records vertices for a single {@link RenderType}. Both the bulk and the chained vertex methods are supported.
+     */
+    protected static class Segment implements VertexConsumer {
+        protected final RenderType renderType;
+        protected final FloatArrayList data = new FloatArrayList();
+
+        protected float x, y, z;
+        protected float red = 1.0F, green = 1.0F, blue = 1.0F, alpha = 1.0F;
+        protected float u, v;
+        protected int overlay, light;
+        protected float normalX, normalY, normalZ;
+
+        protected boolean defaultColorSet = false;
+        protected float defaultRed, defaultGreen, defaultBlue, defaultAlpha;
+
+        protected Segment(RenderType renderType) {
+            this.renderType = renderType;
+        }
+
+        @Override
+        public void vertex(
+                float pX, float pY, float pZ,
+                float pRed, float pGreen, float pBlue, float pAlpha,
+                float pTexU, float pTexV,
+                int pOverlayUV, int pLightmapUV,
+                float pNormalX, float pNormalY, float pNormalZ
+        ) {
+            this.x = pX;
+            this.y = pY;
+            this.z = pZ;
+            this.red = pRed;
+            this.green = pGreen;
+            this.blue = pBlue;
+            this.alpha = pAlpha;
+            this.u = pTexU;
+            this.v = pTexV;
+            this.overlay = pOverlayUV;
+            this.light = pLightmapUV;
+            this.normalX = pNormalX;
+            this.normalY = pNormalY;
+            this.normalZ = pNormalZ;
+
+            this.endVertex();
+        }
+
+        @Override
+        public @NotNull VertexConsumer vertex(double pX, double pY, double pZ) {
+            this.x = (float) pX;
+            this.y = (float) pY;
+            this.z = (float) pZ;
+            return this;
+        }
+
+        @Override
+        public @NotNull VertexConsumer color(int pRed, int pGreen, int pBlue, int pAlpha) {
+            this.red = pRed / 255.0F;
+            this.green = pGreen / 255.0F;
+            this.blue = pBlue / 255.0F;
+            this.alpha = pAlpha / 255.0F;
+            return this;
+        }
+
+        @Override
+        public @NotNull VertexConsumer uv(float pU, float pV) {
+            this.u = pU;
+            this.v = pV;
+            return this;
+        }
+
+        @Override
+        public @NotNull VertexConsumer overlayCoords(int pU, int pV) {
+            this.overlay = pU & 0xFFFF | pV << 16;
+            return this;
+        }
+
+        @Override
+        public @NotNull VertexConsumer uv2(int pU, int pV) {
+            this.light = pU & 0xFFFF | pV << 16;
+            return this;
+        }
+
+        @Override
+        public @NotNull VertexConsumer normal(float pX, float pY, float pZ) {
+            this.normalX = pX;
+            this.normalY = pY;
+            this.normalZ = pZ;
+            return this;
+        }
+
+        @Override
+        public void endVertex() {
+            if (this.defaultColorSet) {
+                this.red = this.defaultRed;
+                this.green = this.defaultGreen;
+                this.blue = this.defaultBlue;
+                this.alpha = this.defaultAlpha;
+            }
+
+            this.data.add(this.x);
+            this.data.add(this.y);
+            this.data.add(this.z);
+            this.data.add(this.red);
+            this.data.add(this.green);
+            this.data.add(this.blue);
+            this.data.add(this.alpha);
+            this.data.add(this.u);
+            this.data.add(this.v);
+            this.data.add(Float.intBitsToFloat(this.overlay));
+            this.data.add(Float.intBitsToFloat(this.light));
+            this.data.add(this.normalX);
+            this.data.add(this.normalY);
+            this.data.add(this.normalZ);
+        }
+
+        @Override
+        public void defaultColor(int pDefaultR, int pDefaultG, int pDefaultB, int pDefaultA) {
+            this.defaultColorSet = true;
+            this.defaultRed = pDefaultR / 255.0F;
+            this.defaultGreen = pDefaultG / 255.0F;
+            this.defaultBlue = pDefaultB / 255.0F;
+            this.defaultAlpha = pDefaultA / 255.0F;
+        }
+
+        @Override
+        public void unsetDefaultColor() {
+            this.defaultColorSet = false;
+        }
+    }
+}
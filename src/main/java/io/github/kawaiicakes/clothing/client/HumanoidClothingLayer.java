@@ -1,15 +1,21 @@
 package io.github.kawaiicakes.clothing.client;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Multimap;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.logging.LogUtils;
 import com.mojang.math.Vector3f;
+import io.github.kawaiicakes.clothing.client.model.ClothingMesh;
+import io.github.kawaiicakes.clothing.common.ClothingDiagnostics;
 import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
+import io.github.kawaiicakes.clothing.common.data.ClothingVisibility;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem.ModelPartReference;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.model.HumanoidModel;
 import net.minecraft.client.model.Model;
@@ -27,18 +33,19 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.decoration.ArmorStand;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.client.event.EntityRenderersEvent;
 import net.minecraftforge.client.model.renderable.BakedModelRenderable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import javax.annotation.ParametersAreNullableByDefault;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Supplier;
 
 import static io.github.kawaiicakes.clothing.common.item.ClothingItem.ERROR_MODEL_LOCATION;
 
@@ -50,7 +57,7 @@ import static io.github.kawaiicakes.clothing.common.item.ClothingItem.ERROR_MODE
  * This class, like its parent, is responsible for handling the rendering of "stuff" onto an entity based on what
  * {@link ItemStack}s exist in the {@link EquipmentSlot}s of the entity. This class caches two {@link HumanoidModel}
  * instances just like its parent, an additional two such that every "body group" has its own layer, and two more
- * that allow for rendering over the vanilla armour.
+ * that allow for rendering over the vanilla armour. When made with a {@link ClothingMesh}, one model serves all six.
  * <br><br>
  * That said, this class works intimately with {@link ClothingItem}s to allow rendering {@link BakedModelRenderable}s;
  * permitting usage of OBJ and JSON models.
@@ -63,15 +70,32 @@ public class HumanoidClothingLayer<
         extends HumanoidArmorLayer<T,M,A>
 {
     protected static final Logger LOGGER = LogUtils.getLogger();
+    protected static final ClothingDiagnostics DIAGNOSTICS = ClothingDiagnostics.getInstance();
 
-    protected static boolean FLUSH_QUEUED = false;
+    protected static final EquipmentSlot[] RENDERED_SLOTS = {
+            EquipmentSlot.FEET,
+            EquipmentSlot.LEGS,
+            EquipmentSlot.CHEST,
+            EquipmentSlot.HEAD
+    };
 
-    protected final A baseModel;
-    protected final A overModel;
-    protected final A overLegsArmorModel;
-    protected final A overMainArmorModel;
+    /**
+     * Shared between instances so that plans may be discarded by entity id alone. A plan is only ever used by the
+     * instance that built it.
+     */
+    protected static final Int2ObjectMap<ClothingRenderPlan<?>> RENDER_PLANS = new Int2ObjectOpenHashMap<>();
 
-    protected Map<CompoundTag, Map<ClothingItem.ModelPartReference, BakedModel>> bakedModels = null;
+    /**
+     * Indexed by {@link MeshStratum} ordinal. Only used when this was not made with a {@link ClothingMesh}.
+     */
+    protected final HumanoidModel<?>[] models = new HumanoidModel<?>[MeshStratum.values().length];
+    @Nullable
+    protected final Supplier<ClothingMesh<A>> meshFactory;
+    @Nullable
+    protected ClothingMesh<A> mesh;
+
+    protected Map<CompoundTag, Map<ClothingItem.ModelPartReference, BakedModel>> bakedModels = new HashMap<>();
+    protected int bakedModelsGeneration = ClothingCacheVersion.getInstance().getResourceGeneration();
 
     /**
      * Added during {@link EntityRenderersEvent.AddLayers} to appropriate renderer. Creates a
@@ -92,18 +116,44 @@ public class HumanoidClothingLayer<
                 outerModel
         );
 
-        this.baseModel = baseModel;
-        this.overModel = overModel;
-        this.overLegsArmorModel = overLegsArmorModel;
-        this.overMainArmorModel = overMainArmorModel;
+        this.models[MeshStratum.BASE.ordinal()] = baseModel;
+        this.models[MeshStratum.INNER.ordinal()] = innerModel;
+        this.models[MeshStratum.OUTER.ordinal()] = outerModel;
+        this.models[MeshStratum.OVER.ordinal()] = overModel;
+        this.models[MeshStratum.OVER_LEG_ARMOR.ordinal()] = overLegsArmorModel;
+        this.models[MeshStratum.OVER_ARMOR.ordinal()] = overMainArmorModel;
+        this.meshFactory = null;
+    }
+
+    /**
+     * As above, but every {@link MeshStratum} is drawn with the one model of a {@link ClothingMesh}, which grows its
+     * cubes by the inflation of each stratum as it is drawn. The mesh is only created by the passed factory once
+     * clothing is first rendered; so that entity types which never wear clothing never bake any.
+     * <br><br>
+     * The inner and outer models of {@link HumanoidArmorLayer} are left null, as this never renders through them.
+     * @see io.github.kawaiicakes.clothing.client.model.ClothingMeshDefinitions#meshFactoryForEntityType(String)
+     */
+    public HumanoidClothingLayer(RenderLayerParent<T, M> pRenderer, Supplier<ClothingMesh<A>> meshFactory) {
+        //noinspection DataFlowIssue
+        super(pRenderer, null, null);
+
+        this.meshFactory = meshFactory;
     }
 
     /**
-     * Flushes all cached assets in every instance of this. Flush is effective immediately after
-     * {@link #renderBakedModels(ItemStack, PoseStack, MultiBufferSource, int)} is called.
+     * Discards every {@link ClothingRenderPlan}. Caches in each instance are tagged with the resource generation of
+     * {@link ClothingCacheVersion} and are dropped the next time it renders after a reload.
      */
     public static void flushModelCaches() {
-        FLUSH_QUEUED = true;
+        RENDER_PLANS.clear();
+    }
+
+    /**
+     * Discards the {@link ClothingRenderPlan} of the entity with the passed id, if any. Called when the entity leaves
+     * the client level so that plans do not outlive their entities.
+     */
+    public static void discardRenderPlan(int entityId) {
+        RENDER_PLANS.remove(entityId);
     }
 
     /**
@@ -119,20 +169,70 @@ public class HumanoidClothingLayer<
             float pPartialTicks, float pAgeInTicks,
             float pNetHeadYaw, float pHeadPitch
     ) {
-        EquipmentSlot[] slots = {
-                EquipmentSlot.FEET,
-                EquipmentSlot.LEGS,
-                EquipmentSlot.CHEST,
-                EquipmentSlot.HEAD
-        };
+        try {
+            ClothingRenderPlan<A> plan = this.getRenderPlan(pLivingEntity);
+            if (plan.getArmor().isEmpty()) return;
+
+            if (!this.usesVertexCache(pLivingEntity)) {
+                this.renderArmor(
+                        plan,
+                        pLivingEntity,
+                        pMatrixStack, pBuffer,
+                        pPackedLight,
+                        pLimbSwing, pLimbSwingAmount,
+                        pPartialTicks, pAgeInTicks,
+                        pNetHeadYaw, pHeadPitch
+                );
+                return;
+            }
 
-        for (EquipmentSlot slot : slots) {
-            ItemStack stack = pLivingEntity.getItemBySlot(slot);
-            if (!(stack.getItem() instanceof ClothingItem clothingItem)) continue;
-            if (!clothingItem.getSlot().equals(slot)) continue;
+            ClothingVertexCache vertexCache = plan.getVertexCache();
+
+            if (!vertexCache.isValidFor(this.getParentModel(), pPackedLight)) {
+                vertexCache.begin(this.getParentModel(), pPackedLight);
 
-            this.renderClothingFromItemStack(
-                    stack,
+                this.renderArmor(
+                        plan,
+                        pLivingEntity,
+                        new PoseStack(), vertexCache,
+                        pPackedLight,
+                        pLimbSwing, pLimbSwingAmount,
+                        pPartialTicks, pAgeInTicks,
+                        pNetHeadYaw, pHeadPitch
+                );
+            }
+
+            vertexCache.replay(pMatrixStack.last(), pBuffer);
+        } catch (Exception e) {
+            DIAGNOSTICS.report("Error while rendering clothing on entity type {}!", e, pLivingEntity.getType());
+        }
+    }
+
+    /**
+     * Entities for which this returns true have their clothing recorded into a {@link ClothingVertexCache} and
+     * replayed for as long as their pose, light and equipment stay the same. Only worthwhile for entities that hold
+     * still most of the time; by default, {@link ArmorStand}s. Overrides of
+     * {@link #getAlpha(LivingEntity, ItemStack, EquipmentSlot, int, float, float, float, float, float, float)} that
+     * vary over time should return false here for the affected entities.
+     */
+    public boolean usesVertexCache(T pLivingEntity) {
+        return pLivingEntity instanceof ArmorStand;
+    }
+
+    protected void renderArmor(
+            ClothingRenderPlan<A> plan,
+            T pLivingEntity,
+            PoseStack pMatrixStack, MultiBufferSource pBuffer,
+            int pPackedLight,
+            float pLimbSwing, float pLimbSwingAmount,
+            float pPartialTicks, float pAgeInTicks,
+            float pNetHeadYaw, float pHeadPitch
+    ) {
+        List<ClothingRenderPlan.StackPlan<A>> armor = plan.getArmor();
+
+        for (int i = 0; i < armor.size(); i++) {
+            this.renderStackPlan(
+                    armor.get(i),
                     pLivingEntity,
                     pMatrixStack, pBuffer,
                     pPackedLight,
@@ -144,16 +244,165 @@ public class HumanoidClothingLayer<
     }
 
     /**
-     * Extraction of render logic to new method is to permit per-slot rendering rather than calling
-     * {@link #render(PoseStack, MultiBufferSource, int, LivingEntity, float, float, float, float, float, float)}
-     * for each slot if rendering needs to be done by a third party.
-     * <br><br>
-     * In particular, this allows for compatibility with Curios API, but will likely come in handy in the future as
-     * it offers much more flexibility.
-     * @param stack the {@link ItemStack} representation of a {@link ClothingItem}.
+     * Returns the {@link ClothingRenderPlan} for the passed entity, rebuilding it if the entity's equipment changed
+     * or the caches were flushed since it was made.
+     * @param pLivingEntity the entity whose clothing is about to be rendered.
+     * @return the plan for the passed entity.
      */
-    public void renderClothingFromItemStack(
-            ItemStack stack,
+    public ClothingRenderPlan<A> getRenderPlan(T pLivingEntity) {
+        ClothingRenderPlan<?> existing = RENDER_PLANS.get(pLivingEntity.getId());
+
+        int generation = ClothingCacheVersion.getInstance().getResourceGeneration();
+        if (existing != null && existing.isValidFor(this, pLivingEntity, generation)) {
+            // isValidFor guarantees this instance made the plan
+            @SuppressWarnings("unchecked")
+            ClothingRenderPlan<A> toReturn = (ClothingRenderPlan<A>) existing;
+            return toReturn;
+        }
+
+        ClothingRenderPlan<A> toReturn = this.buildRenderPlan(pLivingEntity);
+        RENDER_PLANS.put(pLivingEntity.getId(), toReturn);
+
+        return toReturn;
+    }
+
+    protected ClothingRenderPlan<A> buildRenderPlan(T pLivingEntity) {
+        ItemStack[] sources = new ItemStack[RENDERED_SLOTS.length];
+        List<ClothingRenderPlan.StackPlan<A>> armor = new ArrayList<>(RENDERED_SLOTS.length);
+        int[] occludingStrata = this.getOccludingStrata(pLivingEntity);
+
+        for (int i = 0; i < RENDERED_SLOTS.length; i++) {
+            ItemStack stack = pLivingEntity.getItemBySlot(RENDERED_SLOTS[i]);
+            sources[i] = stack;
+
+            if (!(stack.getItem() instanceof ClothingItem clothingItem)) continue;
+            if (!clothingItem.getSlot().equals(RENDERED_SLOTS[i])) continue;
+
+            try {
+                armor.add(this.buildStackPlan(stack, clothingItem, occludingStrata));
+            } catch (Exception e) {
+                DIAGNOSTICS.report("Unable to plan rendering of ItemStack '{}'!", stack, e);
+                armor.add(this.emptyStackPlan(stack, clothingItem));
+            }
+        }
+
+        return new ClothingRenderPlan<>(
+                this,
+                ClothingCacheVersion.getInstance().getResourceGeneration(),
+                RENDERED_SLOTS, sources, occludingStrata, armor
+        );
+    }
+
+    /**
+     * Resolves everything needed to draw the passed stack from its NBT.
+     * @param occludingStrata the return of {@link #getOccludingStrata(LivingEntity)} for the wearer.
+     */
+    public ClothingRenderPlan.StackPlan<A> buildStackPlan(
+            ItemStack stack, ClothingItem clothingItem, int[] occludingStrata
+    ) {
+        Map<MeshStratum, ClothingLayer> meshes = clothingItem.getMeshes(stack);
+        ImmutableListMultimap<MeshStratum, ClothingLayer> overlays = clothingItem.getOverlays(stack);
+
+        List<ClothingRenderPlan.MeshPass<A>> meshPasses = new ArrayList<>(meshes.size());
+
+        for (MeshStratum stratum : MeshStratum.values()) {
+            ClothingLayer mesh = meshes.get(stratum);
+            if (mesh == null) continue;
+
+            assert mesh.clothingVisibility() != null;
+            ModelPartReference[] visibleParts = getUnoccludedParts(
+                    stratum, mesh.clothingVisibility().asArray(), occludingStrata
+            );
+            if (visibleParts.length == 0) continue;
+
+            int stratumColor = clothingItem.getColor(stack, stratum);
+
+            List<ClothingLayer> overlaysForStratum = overlays.get(stratum);
+            List<ClothingRenderPlan.OverlayPass> overlayPasses = new ArrayList<>(overlaysForStratum.size());
+
+            for (int j = overlaysForStratum.size() - 1; j >= 0 ; j--) {
+                ClothingLayer overlay = overlaysForStratum.get(j);
+
+                int overlayColor = overlay.color();
+
+                float rOverlay = overlayColor != ClothingItem.FALLBACK_COLOR
+                        ? (float) (overlayColor >> 16 & 255) / 255.0F
+                        : 1.0F;
+                float gOverlay = overlayColor != ClothingItem.FALLBACK_COLOR
+                        ? (float) (overlayColor >> 8 & 255) / 255.0F
+                        : 1.0F;
+                float bOverlay = overlayColor != ClothingItem.FALLBACK_COLOR
+                        ? (float) (overlayColor & 255) / 255.0F
+                        : 1.0F;
+
+                overlayPasses.add(
+                        new ClothingRenderPlan.OverlayPass(
+                                RenderType.armorCutoutNoCull(getOverlayResource(overlay.textureLocation())),
+                                rOverlay, gOverlay, bOverlay
+                        )
+                );
+            }
+
+            meshPasses.add(
+                    new ClothingRenderPlan.MeshPass<>(
+                            stratum,
+                            this.modelForLayer(stratum),
+                            visibleParts,
+                            RenderType.armorCutoutNoCull(getMeshResource(mesh.textureLocation())),
+                            (float) (stratumColor >> 16 & 255) / 255.0F,
+                            (float) (stratumColor >> 8 & 255) / 255.0F,
+                            (float) (stratumColor & 255) / 255.0F,
+                            ImmutableList.copyOf(overlayPasses)
+                    )
+            );
+        }
+
+        Map<ModelPartReference, BakedModel> bakedModels = new EnumMap<>(ModelPartReference.class);
+        BakedModel missingModel = Minecraft.getInstance().getModelManager().getMissingModel();
+
+        Map<ModelPartReference, BakedModel> parsedModels = parseModelsFromLocations(clothingItem, stack);
+
+        for (Map.Entry<ModelPartReference, BakedModel> entry : parsedModels.entrySet()) {
+            BakedModel forRender = entry.getValue();
+
+            if (forRender == null || missingModel.equals(forRender)) {
+                forRender = getErrorModel();
+            }
+
+            bakedModels.put(entry.getKey(), forRender);
+        }
+
+        return new ClothingRenderPlan.StackPlan<>(
+                stack,
+                stack.getTag(),
+                clothingItem.getSlot(),
+                stack.hasFoil(),
+                ImmutableList.copyOf(meshPasses),
+                Collections.unmodifiableMap(bakedModels)
+        );
+    }
+
+    /**
+     * The plan kept in place of one that could not be built, so that a broken stack shows the error model instead of
+     * failing again every frame.
+     */
+    public ClothingRenderPlan.StackPlan<A> emptyStackPlan(ItemStack stack, ClothingItem clothingItem) {
+        return new ClothingRenderPlan.StackPlan<>(
+                stack,
+                stack.getTag(),
+                clothingItem.getSlot(),
+                false,
+                List.of(),
+                Map.of(ModelPartReference.BODY, getErrorModel())
+        );
+    }
+
+    /**
+     * Draws a single {@link ClothingRenderPlan.StackPlan}. Only the model pose and alpha are evaluated here; all else
+     * was resolved when the plan was made.
+     */
+    public void renderStackPlan(
+            ClothingRenderPlan.StackPlan<A> plan,
             T pEntity,
             PoseStack pMatrixStack, MultiBufferSource pBuffer,
             int pPackedLight,
@@ -161,84 +410,209 @@ public class HumanoidClothingLayer<
             float pPartialTicks, float pAgeInTicks,
             float pNetHeadYaw, float pHeadPitch
     ) {
-        try {
-            if (!(stack.getItem() instanceof ClothingItem clothingItem)) return;
+        float meshAlpha = this.getAlpha(
+                pEntity,
+                plan.stack(), plan.slot(),
+                pPackedLight,
+                pLimbSwing, pLimbSwingAmount,
+                pPartialTicks, pAgeInTicks,
+                pNetHeadYaw, pHeadPitch
+        );
+        float overlayAlpha = this.getAlpha(
+                null,
+                plan.stack(), plan.slot(),
+                pPackedLight,
+                pLimbSwing, pLimbSwingAmount,
+                pPartialTicks, pAgeInTicks,
+                pNetHeadYaw, pHeadPitch
+        );
 
-            boolean hasGlint = stack.hasFoil();
-            Map<MeshStratum, ClothingLayer> meshes = clothingItem.getMeshes(stack);
-            Multimap<MeshStratum, ClothingLayer> overlays = clothingItem.getOverlays(stack);
+        // strata share a model when this was made with a ClothingMesh; it need only be posed once
+        A posedModel = null;
 
-            for (Map.Entry<MeshStratum, ClothingLayer> entry : meshes.entrySet()) {
-                A clothingModel = this.modelForLayer(entry.getKey());
+        List<ClothingRenderPlan.MeshPass<A>> meshPasses = plan.meshPasses();
+        for (int i = 0; i < meshPasses.size(); i++) {
+            ClothingRenderPlan.MeshPass<A> meshPass = meshPasses.get(i);
+            A clothingModel = meshPass.model();
 
+            if (clothingModel != posedModel) {
                 this.getParentModel().copyPropertiesTo(clothingModel);
+                posedModel = clothingModel;
+            }
+            this.setPartVisibility(clothingModel, meshPass.visibleParts());
+            this.prepareStratum(meshPass.stratum());
 
-                assert entry.getValue().clothingVisibility() != null;
-                this.setPartVisibility(
-                        clothingModel, entry.getValue().clothingVisibility().asArray()
-                );
+            this.renderMesh(
+                    pMatrixStack,
+                    pBuffer, pPackedLight,
+                    plan.glint(),
+                    clothingModel,
+                    meshPass.red(), meshPass.green(), meshPass.blue(), meshAlpha,
+                    meshPass.renderType()
+            );
 
-                int stratumColor = clothingItem.getColor(stack, entry.getKey());
-                float rClothing = (float) (stratumColor >> 16 & 255) / 255.0F;
-                float gClothing = (float) (stratumColor >> 8 & 255) / 255.0F;
-                float bClothing = (float) (stratumColor & 255) / 255.0F;
+            List<ClothingRenderPlan.OverlayPass> overlayPasses = meshPass.overlays();
+            for (int j = 0; j < overlayPasses.size(); j++) {
+                ClothingRenderPlan.OverlayPass overlayPass = overlayPasses.get(j);
 
                 this.renderMesh(
                         pMatrixStack,
                         pBuffer, pPackedLight,
-                        hasGlint,
+                        plan.glint(),
                         clothingModel,
-                        rClothing, gClothing, bClothing, this.getAlpha(
-                                pEntity,
-                                stack, clothingItem.getSlot(),
-                                pPackedLight,
-                                pLimbSwing, pLimbSwingAmount,
-                                pPartialTicks, pAgeInTicks,
-                                pNetHeadYaw, pHeadPitch
-                        ),
-                        getMeshResource(entry.getValue().textureLocation())
+                        overlayPass.red(), overlayPass.green(), overlayPass.blue(), overlayAlpha,
+                        overlayPass.renderType()
                 );
+            }
+        }
+
+        this.renderBakedModels(plan.stack(), plan.bakedModels(), pMatrixStack, pBuffer, pPackedLight);
+    }
+
+    /**
+     * Determines which parts of the passed entity are completely hidden by an opaque mesh, and by which stratum.
+     * Only the clothing in the entity's armour slots is considered, and only if it is in the slot of its item; the same
+     * stacks {@link #buildRenderPlan(LivingEntity)} renders.
+     * @param pLivingEntity the entity whose clothing is about to be rendered.
+     * @return an array indexed by {@link ModelPartReference#ordinal()} containing the ordinal of the outermost
+     *          {@link MeshStratum} whose texture is opaque on that part; or -1 if no such stratum is worn.
+     * @see ClothingOcclusion
+     */
+    public int[] getOccludingStrata(T pLivingEntity) {
+        int[] toReturn = new int[ModelPartReference.values().length];
+        Arrays.fill(toReturn, -1);
+
+        ClothingOcclusion occlusion = ClothingOcclusion.getInstance();
+
+        for (EquipmentSlot slot : RENDERED_SLOTS) {
+            ItemStack stack = pLivingEntity.getItemBySlot(slot);
+
+            if (!(stack.getItem() instanceof ClothingItem clothingItem)) continue;
+            if (!clothingItem.getSlot().equals(slot)) continue;
+
+            for (Map.Entry<MeshStratum, ClothingLayer> entry : clothingItem.getMeshes(stack).entrySet()) {
+                ClothingVisibility visibility = entry.getValue().clothingVisibility();
+                if (visibility == null) continue;
 
-                if (overlays.isEmpty()) continue;
-
-                List<ClothingLayer> overlaysForStratum = (List<ClothingLayer>) overlays.get(entry.getKey());
-
-                for (int j = overlaysForStratum.size() - 1; j >= 0 ; j--) {
-                    ClothingLayer overlay = overlaysForStratum.get(j);
-
-                    int overlayColor = overlay.color();
-
-                    float rOverlay = overlayColor != ClothingItem.FALLBACK_COLOR
-                            ? (float) (overlayColor >> 16 & 255) / 255.0F
-                            : 1.0F;
-                    float gOverlay = overlayColor != ClothingItem.FALLBACK_COLOR
-                            ? (float) (overlayColor >> 8 & 255) / 255.0F
-                            : 1.0F;
-                    float bOverlay = overlayColor != ClothingItem.FALLBACK_COLOR
-                            ? (float) (overlayColor & 255) / 255.0F
-                            : 1.0F;
-
-                    this.renderMesh(
-                            pMatrixStack,
-                            pBuffer, pPackedLight,
-                            hasGlint,
-                            clothingModel,
-                            rOverlay, gOverlay, bOverlay, this.getAlpha(
-                                    null,
-                                    stack, clothingItem.getSlot(),
-                                    pPackedLight,
-                                    pLimbSwing, pLimbSwingAmount,
-                                    pPartialTicks, pAgeInTicks,
-                                    pNetHeadYaw, pHeadPitch
-                            ),
-                            getOverlayResource(overlay.textureLocation())
-                    );
+                Set<ModelPartReference> opaqueParts = occlusion.getOpaqueParts(entry.getValue().textureLocation());
+                if (opaqueParts.isEmpty()) continue;
+
+                for (ModelPartReference part : visibility.asArray()) {
+                    if (!opaqueParts.contains(part)) continue;
+                    toReturn[part.ordinal()] = Math.max(toReturn[part.ordinal()], entry.getKey().ordinal());
                 }
             }
+        }
+
+        return toReturn;
+    }
+
+    /**
+     * @param stratum the {@link MeshStratum} about to be rendered.
+     * @param parts the parts the stratum is declared visible on.
+     * @param occludingStrata the return of {@link #getOccludingStrata(LivingEntity)}.
+     * @return the passed parts, less those covered by an opaque stratum further out than the passed one.
+     */
+    public static ModelPartReference[] getUnoccludedParts(
+            MeshStratum stratum, ModelPartReference[] parts, int[] occludingStrata
+    ) {
+        int unoccluded = 0;
+        for (ModelPartReference part : parts) {
+            if (occludingStrata[part.ordinal()] <= stratum.ordinal()) unoccluded++;
+        }
+
+        if (unoccluded == parts.length) return parts;
+
+        ModelPartReference[] toReturn = new ModelPartReference[unoccluded];
+        int i = 0;
+        for (ModelPartReference part : parts) {
+            if (occludingStrata[part.ordinal()] <= stratum.ordinal()) toReturn[i++] = part;
+        }
+
+        return toReturn;
+    }
+
+    /**
+     * Extraction of render logic to new method is to permit per-slot rendering rather than calling
+     * {@link #render(PoseStack, MultiBufferSource, int, LivingEntity, float, float, float, float, float, float)}
+     * for each slot if rendering needs to be done by a third party.
+     * <br><br>
+     * In particular, this allows for compatibility with Curios API, but will likely come in handy in the future as
+     * it offers much more flexibility. The resolved stack is remembered in the {@link ClothingRenderPlan} of the
+     * passed entity.
+     * @param stack the {@link ItemStack} representation of a {@link ClothingItem}.
+     */
+    public void renderClothingFromItemStack(
+            ItemStack stack,
+            T pEntity,
+            PoseStack pMatrixStack, MultiBufferSource pBuffer,
+            int pPackedLight,
+            float pLimbSwing, float pLimbSwingAmount,
+            float pPartialTicks, float pAgeInTicks,
+            float pNetHeadYaw, float pHeadPitch
+    ) {
+        try {
+            if (!(stack.getItem() instanceof ClothingItem clothingItem)) return;
+
+            ClothingRenderPlan<A> entityPlan = this.getRenderPlan(pEntity);
+            ClothingRenderPlan.StackPlan<A> stackPlan = entityPlan.getExtra(stack);
+
+            if (stackPlan == null) {
+                try {
+                    stackPlan = this.buildStackPlan(stack, clothingItem, entityPlan.getOccludingStrata());
+                } catch (Exception e) {
+                    DIAGNOSTICS.report("Unable to plan rendering of ItemStack '{}'!", stack, e);
+                    stackPlan = this.emptyStackPlan(stack, clothingItem);
+                }
+
+                entityPlan.addExtra(stackPlan);
+            }
 
-            this.renderBakedModels(stack, pMatrixStack, pBuffer, pPackedLight);
+            this.renderStackPlan(
+                    stackPlan,
+                    pEntity,
+                    pMatrixStack, pBuffer,
+                    pPackedLight,
+                    pLimbSwing, pLimbSwingAmount,
+                    pPartialTicks, pAgeInTicks,
+                    pNetHeadYaw, pHeadPitch
+            );
+        } catch (Exception e) {
+            DIAGNOSTICS.report("Error while rendering clothing ItemStack '{}'!", stack, e);
+        }
+    }
+
+    /**
+     * Overload of
+     * {@link #renderClothingFromItemStack(ItemStack, LivingEntity, PoseStack, MultiBufferSource, int, float, float, float, float, float, float)}
+     * which skips any part of a stratum that is hidden by an opaque stratum further out. Nothing is cached; prefer the
+     * former where possible.
+     * @param occludingStrata the return of {@link #getOccludingStrata(LivingEntity)}.
+     */
+    public void renderClothingFromItemStack(
+            ItemStack stack,
+            T pEntity,
+            PoseStack pMatrixStack, MultiBufferSource pBuffer,
+            int pPackedLight,
+            float pLimbSwing, float pLimbSwingAmount,
+            float pPartialTicks, float pAgeInTicks,
+            float pNetHeadYaw, float pHeadPitch,
+            int[] occludingStrata
+    ) {
+        try {
+            if (!(stack.getItem() instanceof ClothingItem clothingItem)) return;
+
+            this.renderStackPlan(
+                    this.buildStackPlan(stack, clothingItem, occludingStrata),
+                    pEntity,
+                    pMatrixStack, pBuffer,
+                    pPackedLight,
+                    pLimbSwing, pLimbSwingAmount,
+                    pPartialTicks, pAgeInTicks,
+                    pNetHeadYaw, pHeadPitch
+            );
         } catch (Exception e) {
-            LOGGER.error("Error while rendering clothing!", e);
+            DIAGNOSTICS.report("Error while rendering clothing ItemStack '{}'!", stack, e);
         }
     }
 
@@ -248,11 +622,27 @@ public class HumanoidClothingLayer<
             Model pModel,
             float pRed, float pGreen, float pBlue, float pAlpha,
             ResourceLocation armorResource
+    ) {
+        this.renderMesh(
+                pPoseStack,
+                pBuffer, pPackedLight, pGlint,
+                pModel,
+                pRed, pGreen, pBlue, pAlpha,
+                RenderType.armorCutoutNoCull(armorResource)
+        );
+    }
+
+    public void renderMesh(
+            PoseStack pPoseStack,
+            MultiBufferSource pBuffer, int pPackedLight, boolean pGlint,
+            Model pModel,
+            float pRed, float pGreen, float pBlue, float pAlpha,
+            RenderType renderType
     ) {
         VertexConsumer vertexconsumer =
                 ItemRenderer.getArmorFoilBuffer(
                         pBuffer,
-                        RenderType.armorCutoutNoCull(armorResource),
+                        renderType,
                         false,
                         pGlint
                 );
@@ -275,13 +665,14 @@ public class HumanoidClothingLayer<
             MultiBufferSource pBuffer, int pPackedLight
     ) {
         if (!(pItemStack.getItem() instanceof ClothingItem clothingItem)) {
-            LOGGER.error("Passed ItemStack '{}' is not a clothing item!", pItemStack);
+            DIAGNOSTICS.report("Passed ItemStack '{}' is not a clothing item!", pItemStack, null);
             return;
         }
 
-        if (FLUSH_QUEUED) {
+        int generation = ClothingCacheVersion.getInstance().getResourceGeneration();
+        if (this.bakedModelsGeneration != generation) {
             this.bakedModels = new HashMap<>();
-            FLUSH_QUEUED = false;
+            this.bakedModelsGeneration = generation;
         }
 
         Map<ClothingItem.ModelPartReference, BakedModel> modelsForRender = this.bakedModels.computeIfAbsent(
@@ -289,6 +680,15 @@ public class HumanoidClothingLayer<
                 (key) -> parseModelsFromLocations(clothingItem, pItemStack)
         );
 
+        this.renderBakedModels(pItemStack, modelsForRender, pMatrixStack, pBuffer, pPackedLight);
+    }
+
+    public void renderBakedModels(
+            ItemStack pItemStack,
+            Map<ClothingItem.ModelPartReference, BakedModel> modelsForRender,
+            PoseStack pMatrixStack,
+            MultiBufferSource pBuffer, int pPackedLight
+    ) {
         for (Map.Entry<ClothingItem.ModelPartReference, BakedModel> entry : modelsForRender.entrySet()) {
             ClothingItem.ModelPartReference modelPartReference = entry.getKey();
             BakedModel forRender = entry.getValue();
@@ -383,14 +783,23 @@ public class HumanoidClothingLayer<
      * @return the appropriate {@link A} to render to.
      */
     public A modelForLayer(ClothingItem.MeshStratum meshStratum) {
-        return switch (meshStratum) {
-            case BASE -> this.baseModel;
-            case INNER -> this.innerModel;
-            case OUTER -> this.outerModel;
-            case OVER -> this.overModel;
-            case OVER_LEG_ARMOR -> this.overLegsArmorModel;
-            case OVER_ARMOR -> this.overMainArmorModel;
-        };
+        if (this.meshFactory != null) {
+            if (this.mesh == null) this.mesh = this.meshFactory.get();
+            return this.mesh.getModel();
+        }
+
+        // only ever filled with instances of A
+        @SuppressWarnings("unchecked")
+        A toReturn = (A) this.models[meshStratum.ordinal()];
+        return toReturn;
+    }
+
+    /**
+     * Readies the model returned by {@link #modelForLayer(MeshStratum)} for drawing the passed stratum. Only does
+     * anything if this was made with a {@link ClothingMesh}.
+     */
+    public void prepareStratum(ClothingItem.MeshStratum meshStratum) {
+        if (this.mesh != null) this.mesh.setStratum(meshStratum);
     }
 
     /**
@@ -1,5 +1,6 @@
 package io.github.kawaiicakes.clothing.client.model;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
@@ -7,27 +8,44 @@ import com.google.gson.JsonParseException;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.logging.LogUtils;
+import io.github.kawaiicakes.clothing.client.ClothingCacheVersion;
 import io.github.kawaiicakes.clothing.client.ClothingItemRenderer;
+import io.github.kawaiicakes.clothing.common.ClothingDiagnostics;
+import io.github.kawaiicakes.clothing.common.data.ClothingItemModelGenerator;
 import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
 import io.github.kawaiicakes.clothing.common.item.OverlayPatternItem;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.BlockModel;
 import net.minecraft.client.renderer.block.model.ItemOverrides;
 import net.minecraft.client.renderer.block.model.ItemTransforms;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.resources.model.*;
+import net.minecraft.core.Direction;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.inventory.InventoryMenu;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.client.model.BakedModelWrapper;
+import net.minecraftforge.client.model.data.ModelData;
 import net.minecraftforge.client.model.geometry.IGeometryBakingContext;
 import net.minecraftforge.client.model.geometry.IGeometryLoader;
 import net.minecraftforge.client.model.geometry.IUnbakedGeometry;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
 import java.util.function.Function;
 
@@ -35,6 +53,7 @@ import static io.github.kawaiicakes.clothing.common.item.ClothingItem.ERROR_MODE
 
 public class ClothingItemModel implements IUnbakedGeometry<ClothingItemModel> {
     protected static final Logger LOGGER = LogUtils.getLogger();
+    protected static final ClothingDiagnostics DIAGNOSTICS = ClothingDiagnostics.getInstance();
 
     protected final BlockModel model;
 
@@ -72,10 +91,30 @@ public class ClothingItemModel implements IUnbakedGeometry<ClothingItemModel> {
         return this.model.getMaterials(modelGetter, missingTextureErrors);
     }
 
+    /**
+     * Entry and overlay item models are not baked during resource reload. Each is baked the first time an icon needs
+     * it, or ahead of that if it is in the player's inventory; see {@link #warmUp(Player)}.
+     */
     public static class Baked<T extends BakedModel> extends BakedModelWrapper<T> {
         protected static Map<ResourceLocation, BakedModel> MODEL_CACHE = new HashMap<>();
         protected static Map<Integer, List<BakedModel>> MODEL_LIST_CACHE = new HashMap<>();
 
+        /**
+         * The number of ticks between scans of the player's inventory for models to warm up.
+         */
+        protected static final int WARM_UP_INTERVAL = 20;
+        /**
+         * The number of deferred models baked per tick while warming up.
+         */
+        protected static final int WARM_UP_BUDGET = 2;
+        protected static final Deque<ResourceLocation> WARM_UP_QUEUE = new ArrayDeque<>();
+        protected static int warmUpTicks = 0;
+
+        protected static Set<ResourceLocation> PENDING_DEFERRED_MODELS = new HashSet<>();
+        protected static Set<ResourceLocation> DEFERRED_MODELS = Set.of();
+        @Nullable
+        protected static ModelBakery BAKERY;
+
         public static void flushModelCaches() {
             MODEL_CACHE = new HashMap<>();
             MODEL_LIST_CACHE = new HashMap<>();
@@ -84,26 +123,181 @@ public class ClothingItemModel implements IUnbakedGeometry<ClothingItemModel> {
         protected static BakedModel get(ResourceLocation modelLocation) {
             return MODEL_CACHE.computeIfAbsent(
                     modelLocation,
-                    (location) -> Minecraft.getInstance().getModelManager().getModel(location)
+                    (location) -> DEFERRED_MODELS.contains(location)
+                            ? bakeDeferred(location)
+                            : Minecraft.getInstance().getModelManager().getModel(location)
             );
         }
 
-        // TODO: [LOW PRIORITY] Fix item model colours. One dyed layer should not dye the rest.
+        /**
+         * Whether the passed model is left unbaked during resource reload and baked on first use instead. These are
+         * the item models of clothing entries and overlays, of which there is one per entry or overlay.
+         */
+        public static boolean isDeferrable(ResourceLocation modelLocation) {
+            return modelLocation.getPath().startsWith(ClothingItemModelGenerator.ITEM_CLOTHING_MODEL_PATH);
+        }
+
+        /**
+         * Called in place of registering the passed models while models are registered. They take effect once the
+         * reload finishes baking; see {@link #onBakingCompleted(ModelBakery)}.
+         */
+        public static void deferModels(Collection<ResourceLocation> modelLocations) {
+            PENDING_DEFERRED_MODELS = new HashSet<>(modelLocations);
+        }
+
+        public static void onBakingCompleted(ModelBakery bakery) {
+            DEFERRED_MODELS = PENDING_DEFERRED_MODELS;
+            BAKERY = bakery;
+            WARM_UP_QUEUE.clear();
+            flushModelCaches();
+            ClothingCacheVersion.getInstance().onResourcesReloaded();
+        }
+
+        /**
+         * Deferred models are never loaded during the reload, so their textures must be added to the block atlas
+         * separately. The model files and their parents are read from the passed manager, and the textures found
+         * through {@link UnbakedModel#getMaterials}; so that a texture a deferred model inherits from its parent is
+         * stitched like any other.
+         * @return the textures of every model deferred in the ongoing reload.
+         */
+        public static Set<ResourceLocation> getDeferredTextures(ResourceManager manager) {
+            Set<ResourceLocation> toReturn = new HashSet<>();
+            Map<ResourceLocation, UnbakedModel> models = new HashMap<>();
+            Function<ResourceLocation, UnbakedModel> modelGetter = (location) -> readModel(manager, models, location);
+
+            for (ResourceLocation modelLocation : PENDING_DEFERRED_MODELS) {
+                try {
+                    UnbakedModel model = modelGetter.apply(modelLocation);
+                    if (model == null) continue;
+
+                    for (Material material : model.getMaterials(modelGetter, new HashSet<>())) {
+                        if (material.atlasLocation().equals(InventoryMenu.BLOCK_ATLAS))
+                            toReturn.add(material.texture());
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.error("Unable to read textures of deferred model '{}'!", modelLocation, e);
+                }
+            }
+
+            return toReturn;
+        }
+
+        /**
+         * Reads the passed model from the passed manager as the bakery would, keeping it in the passed map so that
+         * parents shared by many deferred models are only read once.
+         * @return the read model; an empty one if the passed location is the missing model, or null if it cannot be
+         *          read.
+         */
+        @Nullable
+        protected static UnbakedModel readModel(
+                ResourceManager manager, Map<ResourceLocation, UnbakedModel> models, ResourceLocation modelLocation
+        ) {
+            if (models.containsKey(modelLocation)) return models.get(modelLocation);
+
+            UnbakedModel toReturn = null;
+
+            if (modelLocation.getPath().equals("builtin/generated")) {
+                toReturn = ModelBakery.GENERATION_MARKER;
+            } else if (modelLocation.equals(ModelBakery.MISSING_MODEL_LOCATION)) {
+                toReturn = BlockModel.fromString("{}");
+            } else {
+                ResourceLocation fileLocation = new ResourceLocation(
+                        modelLocation.getNamespace(), "models/" + modelLocation.getPath() + ".json"
+                );
+
+                Optional<Resource> resource = manager.getResource(fileLocation);
+                if (resource.isPresent()) {
+                    try (Reader reader = resource.get().openAsReader()) {
+                        toReturn = BlockModel.fromStream(reader);
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.error("Unable to read model '{}'!", modelLocation, e);
+                    }
+                }
+            }
+
+            models.put(modelLocation, toReturn);
+            return toReturn;
+        }
+
+        protected static BakedModel bakeDeferred(ResourceLocation modelLocation) {
+            BakedModel missingModel = Minecraft.getInstance().getModelManager().getMissingModel();
+            if (BAKERY == null) return missingModel;
+
+            try {
+                // the bakery only resolves the parents of models loaded during the reload
+                BAKERY.getModel(modelLocation).getMaterials(BAKERY::getModel, new HashSet<>());
+                BakedModel toReturn = BAKERY.bake(modelLocation, BlockModelRotation.X0_Y0, Material::sprite);
+
+                return toReturn != null ? toReturn : missingModel;
+            } catch (RuntimeException e) {
+                DIAGNOSTICS.report("Unable to bake deferred model '{}'!", e, modelLocation);
+                return missingModel;
+            }
+        }
+
+        /**
+         * Called every client tick. Bakes the deferred models of the items in the inventory of the passed player a few
+         * at a time, so that they are ready before they are first drawn without stalling any single frame.
+         */
+        public static void warmUp(Player player) {
+            if (BAKERY == null || DEFERRED_MODELS.isEmpty()) return;
+
+            if (++warmUpTicks >= WARM_UP_INTERVAL) {
+                warmUpTicks = 0;
+
+                Inventory inventory = player.getInventory();
+                for (int i = 0; i < inventory.getContainerSize(); i++) {
+                    for (ResourceLocation modelLocation : getModelLocations(inventory.getItem(i))) {
+                        if (!DEFERRED_MODELS.contains(modelLocation) || MODEL_CACHE.containsKey(modelLocation))
+                            continue;
+                        if (!WARM_UP_QUEUE.contains(modelLocation)) WARM_UP_QUEUE.add(modelLocation);
+                    }
+                }
+            }
+
+            for (int i = 0; i < WARM_UP_BUDGET && !WARM_UP_QUEUE.isEmpty(); i++) {
+                get(WARM_UP_QUEUE.poll());
+            }
+        }
+
+        /**
+         * @return the locations of the entry and overlay models making up the icon of the passed stack.
+         */
+        public static List<ResourceLocation> getModelLocations(ItemStack stack) {
+            if (stack.getItem() instanceof OverlayPatternItem pattern)
+                return List.of(ClothingItemRenderer.overlayModelLocation(pattern.getOverlay(stack)));
+
+            if (!(stack.getItem() instanceof ClothingItem clothing)) return List.of();
+
+            List<ResourceLocation> toReturn = new ArrayList<>();
+            toReturn.add(ClothingItemRenderer.entryModelLocation(clothing.getClothingName(stack)));
+
+            for (ClothingLayer overlay : getIconOverlays(clothing, stack)) {
+                toReturn.add(ClothingItemRenderer.overlayModelLocation(overlay.textureLocation()));
+            }
+
+            return toReturn;
+        }
+
+        /**
+         * Returns the icon of the passed stack as one {@link Merged} model, built from the base model of the entry or
+         * pattern and the model of each of its overlays.
+         */
         protected static List<BakedModel> getList(int modelHash, ItemStack clothingStack) {
             try {
                 return MODEL_LIST_CACHE.computeIfAbsent(
                         modelHash,
                         (i) -> {
-                            List<BakedModel> toReturn = new ArrayList<>();
+                            List<BakedModel> layers = new ArrayList<>();
 
                             if (clothingStack.getItem() instanceof OverlayPatternItem pattern) {
-                                toReturn.add(get(new ResourceLocation("clothing:item/overlay_pattern_base")));
-                                toReturn.add(
+                                layers.add(get(new ResourceLocation("clothing:item/overlay_pattern_base")));
+                                layers.add(
                                         get(ClothingItemRenderer.overlayModelLocation(
                                                 pattern.getOverlay(clothingStack)
                                         ))
                                 );
-                                return toReturn;
+                                return List.of(new Merged(layers));
                             }
 
                             if (!(clothingStack.getItem() instanceof ClothingItem clothing))
@@ -118,43 +312,60 @@ public class ClothingItemModel implements IUnbakedGeometry<ClothingItemModel> {
                             BakedModel baseModel = get(baseLocation);
 
                             if (baseModel.equals(missingModel)) {
-                                LOGGER.error("Base clothing model '{}' does not exist!", baseLocation);
+                                DIAGNOSTICS.report("Base clothing model '{}' does not exist!", null, baseLocation);
                             }
 
-                            toReturn.add(baseModel);
-
-                            ImmutableListMultimap<MeshStratum, ClothingLayer> overlays
-                                    = clothing.getOverlays(clothingStack);
-
-                            for (MeshStratum stratum : MeshStratum.values()) {
-                                if (!overlays.containsKey(stratum)) continue;
-                                List<ClothingLayer> layers = overlays.get(stratum);
+                            layers.add(baseModel);
 
-                                for (int j = layers.size() - 1; j >= 0; j--) {
-                                    ClothingLayer overlay = layers.get(j);
+                            for (ClothingLayer overlay : getIconOverlays(clothing, clothingStack)) {
+                                ResourceLocation overlayLocation
+                                        = ClothingItemRenderer.overlayModelLocation(overlay.textureLocation());
 
-                                    ResourceLocation overlayLocation
-                                            = ClothingItemRenderer.overlayModelLocation(overlay.textureLocation());
+                                BakedModel overlayModel = get(overlayLocation);
 
-                                    BakedModel overlayModel = get(overlayLocation);
-
-                                    if (overlayModel.equals(missingModel)) {
-                                        LOGGER.error("Overlay item model '{}' does not exist!", overlayLocation);
-                                    }
-
-                                    toReturn.add(overlayModel);
+                                if (overlayModel.equals(missingModel)) {
+                                    DIAGNOSTICS.report(
+                                            "Overlay item model '{}' does not exist!", null, overlayLocation
+                                    );
                                 }
+
+                                layers.add(overlayModel);
                             }
 
-                            return toReturn;
+                            return List.of(new Merged(layers));
                         }
                 );
             } catch (Exception e) {
-                LOGGER.error("Unable to return list of passes for render!", e);
-                return List.of(Minecraft.getInstance().getModelManager().getModel(ERROR_MODEL_LOCATION));
+                DIAGNOSTICS.report("Unable to return list of passes for render of ItemStack '{}'!", clothingStack, e);
+
+                // kept until the caches are flushed, rather than failing again every frame
+                List<BakedModel> toReturn
+                        = List.of(Minecraft.getInstance().getModelManager().getModel(ERROR_MODEL_LOCATION));
+                MODEL_LIST_CACHE.put(modelHash, toReturn);
+                return toReturn;
             }
         }
 
+        /**
+         * @return the overlays of the passed stack in the order their models are merged into its icon. The overlay at
+         *          index <code>i</code> is tinted using tint index <code>i + 1</code>.
+         */
+        public static List<ClothingLayer> getIconOverlays(ClothingItem clothing, ItemStack clothingStack) {
+            ImmutableListMultimap<MeshStratum, ClothingLayer> overlays = clothing.getOverlays(clothingStack);
+            List<ClothingLayer> toReturn = new ArrayList<>(overlays.size());
+
+            for (MeshStratum stratum : MeshStratum.values()) {
+                if (!overlays.containsKey(stratum)) continue;
+                List<ClothingLayer> layers = overlays.get(stratum);
+
+                for (int j = layers.size() - 1; j >= 0; j--) {
+                    toReturn.add(layers.get(j));
+                }
+            }
+
+            return toReturn;
+        }
+
         public Baked(T originalModel) {
             super(originalModel);
         }
@@ -195,6 +406,76 @@ public class ClothingItemModel implements IUnbakedGeometry<ClothingItemModel> {
         }
     }
 
+    /**
+     * The quads of an icon's base model followed by those of each of its overlays, drawn in a single pass. Tinted quads
+     * of the <code>i</code>th layer after the base are given tint index <code>i</code>, so that each overlay may be
+     * coloured independently of the base and of each other. Everything besides quads is that of the base model.
+     */
+    public static class Merged extends BakedModelWrapper<BakedModel> {
+        protected final Map<Direction, List<BakedQuad>> quads = new EnumMap<>(Direction.class);
+        protected final List<BakedQuad> unculledQuads;
+
+        public Merged(List<BakedModel> layers) {
+            super(layers.get(0));
+
+            RandomSource random = RandomSource.create();
+
+            for (Direction direction : Direction.values()) {
+                this.quads.put(direction, mergeQuads(layers, direction, random));
+            }
+
+            this.unculledQuads = mergeQuads(layers, null, random);
+        }
+
+        protected static List<BakedQuad> mergeQuads(
+                List<BakedModel> layers, @Nullable Direction side, RandomSource random
+        ) {
+            ImmutableList.Builder<BakedQuad> builder = ImmutableList.builder();
+
+            for (int i = 0; i < layers.size(); i++) {
+                random.setSeed(42L);
+
+                for (BakedQuad quad : layers.get(i).getQuads(null, side, random)) {
+                    if (i == 0 || !quad.isTinted()) {
+                        builder.add(quad);
+                        continue;
+                    }
+
+                    builder.add(
+                            new BakedQuad(quad.getVertices(), i, quad.getDirection(), quad.getSprite(), quad.isShade())
+                    );
+                }
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        @NotNull
+        public List<BakedQuad> getQuads(
+                @Nullable BlockState state, @Nullable Direction side, @NotNull RandomSource rand
+        ) {
+            return side == null ? this.unculledQuads : this.quads.get(side);
+        }
+
+        @Override
+        @NotNull
+        public List<BakedQuad> getQuads(
+                @Nullable BlockState state,
+                @Nullable Direction side,
+                @NotNull RandomSource rand,
+                @NotNull ModelData extraData,
+                @Nullable RenderType renderType
+        ) {
+            return this.getQuads(state, side, rand);
+        }
+
+        @Override
+        public @NotNull List<BakedModel> getRenderPasses(@NotNull ItemStack itemStack, boolean fabulous) {
+            return List.of(this);
+        }
+    }
+
     public static class Loader implements IGeometryLoader<ClothingItemModel> {
         public static final String ID = "item_model_loader";
         public static final Loader INSTANCE = new Loader();
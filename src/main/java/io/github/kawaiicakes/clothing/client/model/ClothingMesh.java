@@ -0,0 +1,305 @@
+package io.github.kawaiicakes.clothing.client.model;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.math.Matrix3f;
+import com.mojang.math.Matrix4f;
+import com.mojang.math.Vector3f;
+import com.mojang.math.Vector4f;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import net.minecraft.client.model.HumanoidModel;
+import net.minecraft.client.model.geom.ModelPart;
+import net.minecraft.client.model.geom.PartPose;
+import net.minecraft.client.model.geom.builders.LayerDefinition;
+import net.minecraft.client.model.geom.builders.MeshDefinition;
+import net.minecraft.client.model.geom.builders.PartDefinition;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A single humanoid model serving every {@link MeshStratum} of one entity type. Rather than baking one
+ * {@link ModelPart} tree per cube inflation, the cubes of each part are captured once without any stratum inflation
+ * and are pushed outwards by the inflation of the current stratum as their vertices are emitted.
+ * <br><br>
+ * Each captured vertex remembers which side of its cube's centre it lies on along each axis; growing a cube by some
+ * amount is then the same as moving each vertex that far along those signs, exactly as
+ * {@link ModelPart.Cube} does when baked with a {@link net.minecraft.client.model.geom.builders.CubeDeformation}.
+ * <br><br>
+ * Call {@link #setStratum(MeshStratum)} before rendering {@link #getModel()} for a stratum.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingMesh<A extends HumanoidModel<?>> {
+    /**
+     * The parts replaced by {@link InflatablePart}s. These are the parts every humanoid model is made from.
+     */
+    public static final String[] PART_NAMES = {
+            "head", "hat", "body", "right_arm", "left_arm", "right_leg", "left_leg"
+    };
+    /**
+     * x, y, z, u, v, normal x, normal y, normal z, sign x, sign y, sign z
+     */
+    protected static final int VERTEX_SIZE = 11;
+    protected static final int VERTICES_PER_CUBE = 24;
+
+    protected final A model;
+    protected final float[] inflations;
+    protected float inflation;
+
+    protected final Vector4f position = new Vector4f();
+    protected final Vector3f normal = new Vector3f();
+
+    /**
+     * @param meshDefinition the geometry of the entity type without any stratum inflation.
+     * @param modelConstructor creates the model of the entity type from the root of a baked mesh.
+     * @param inflations the cube inflation of each stratum, indexed by ordinal.
+     */
+    public ClothingMesh(
+            MeshDefinition meshDefinition,
+            int textureWidth, int textureHeight,
+            Function<ModelPart, A> modelConstructor,
+            float[] inflations
+    ) {
+        this.inflations = inflations;
+        this.inflation = inflations[0];
+
+        ModelPart bakedRoot = LayerDefinition.create(meshDefinition, textureWidth, textureHeight).bakeRoot();
+        Map<String, ModelPart> parts = new HashMap<>();
+
+        for (String name : PART_NAMES) {
+            parts.put(name, this.wrap(bakedRoot.getChild(name), meshDefinition.getRoot().getChild(name)));
+        }
+
+        this.model = modelConstructor.apply(new ModelPart(List.of(), parts));
+    }
+
+    public A getModel() {
+        return this.model;
+    }
+
+    /**
+     * Sets the inflation that cubes are grown by when {@link #getModel()} is next rendered.
+     */
+    public void setStratum(MeshStratum stratum) {
+        this.inflation = this.inflations[stratum.ordinal()];
+    }
+
+    /**
+     * Replaces the passed part and, recursively, its children with {@link InflatablePart}s; so that the cubes of
+     * children are grown by the inflation of the current stratum as well.
+     */
+    protected InflatablePart wrap(ModelPart bakedPart, PartDefinition partDefinition) {
+        Map<String, ModelPart> bakedChildren = new HashMap<>();
+        for (String childName : partDefinition.children.keySet()) {
+            bakedChildren.put(childName, bakedPart.getChild(childName));
+        }
+
+        float[] vertices = capture(bakedPart, bakedChildren);
+
+        Map<String, ModelPart> children = new HashMap<>();
+        for (String childName : partDefinition.children.keySet()) {
+            children.put(childName, this.wrap(bakedChildren.get(childName), partDefinition.getChild(childName)));
+        }
+
+        InflatablePart toReturn = new InflatablePart(vertices, children);
+        toReturn.loadPose(bakedPart.storePose());
+
+        return toReturn;
+    }
+
+    /**
+     * Renders the cubes of the passed part, excluding its children, without its pose and records their vertices.
+     * <br><br>
+     * A flat cube has no extent along some axis, so its vertices lie on its centre there. Each of those takes the sign
+     * of its face normal instead; so that its two large faces move apart, as {@link ModelPart.Cube} grows both sides
+     * of a flat cube.
+     */
+    protected static float[] capture(ModelPart bakedPart, Map<String, ModelPart> children) {
+        PartPose pose = bakedPart.storePose();
+        bakedPart.loadPose(PartPose.ZERO);
+        children.values().forEach((child) -> child.visible = false);
+
+        CaptureConsumer consumer = new CaptureConsumer();
+        bakedPart.render(new PoseStack(), consumer, 0, OverlayTexture.NO_OVERLAY);
+
+        bakedPart.loadPose(pose);
+        children.values().forEach((child) -> child.visible = true);
+
+        float[] vertices = consumer.data.toFloatArray();
+
+        for (int cube = 0; cube < vertices.length; cube += VERTICES_PER_CUBE * VERTEX_SIZE) {
+            int end = Math.min(cube + VERTICES_PER_CUBE * VERTEX_SIZE, vertices.length);
+
+            float centreX = 0, centreY = 0, centreZ = 0;
+            for (int i = cube; i < end; i += VERTEX_SIZE) {
+                centreX += vertices[i];
+                centreY += vertices[i + 1];
+                centreZ += vertices[i + 2];
+            }
+
+            int count = (end - cube) / VERTEX_SIZE;
+            centreX /= count;
+            centreY /= count;
+            centreZ /= count;
+
+            for (int i = cube; i < end; i += VERTEX_SIZE) {
+                vertices[i + 8] = signOf(vertices[i] - centreX, vertices[i + 5]);
+                vertices[i + 9] = signOf(vertices[i + 1] - centreY, vertices[i + 6]);
+                vertices[i + 10] = signOf(vertices[i + 2] - centreZ, vertices[i + 7]);
+            }
+        }
+
+        return vertices;
+    }
+
+    /**
+     * @param offset the offset of a vertex from the centre of its cube along one axis.
+     * @param normal the normal of the face of the vertex along the same axis.
+     */
+    protected static float signOf(float offset, float normal) {
+        // centres are averaged from floats, so a vertex on the centre may be off by a rounding error
+        if (Math.abs(offset) > 1.0E-4F) return Math.signum(offset);
+        return Math.signum(normal);
+    }
+
+    /**
+     * A {@link ModelPart} drawing captured cubes grown by the inflation of the current stratum. Posing, visibility and
+     * children behave as for any other part; its children are {@link InflatablePart}s themselves.
+     */
+    public class InflatablePart extends ModelPart {
+        protected final float[] vertices;
+        protected final List<ModelPart> children;
+
+        protected InflatablePart(float[] vertices, Map<String, ModelPart> children) {
+            super(List.of(), children);
+            this.vertices = vertices;
+            this.children = List.copyOf(children.values());
+        }
+
+        @Override
+        public void render(
+                @NotNull PoseStack pPoseStack, @NotNull VertexConsumer pVertexConsumer,
+                int pPackedLight, int pPackedOverlay,
+                float pRed, float pGreen, float pBlue, float pAlpha
+        ) {
+            if (!this.visible) return;
+
+            pPoseStack.pushPose();
+            this.translateAndRotate(pPoseStack);
+
+            PoseStack.Pose pose = pPoseStack.last();
+            Matrix4f matrix = pose.pose();
+            Matrix3f normalMatrix = pose.normal();
+            float grow = ClothingMesh.this.inflation / 16.0F;
+            float[] data = this.vertices;
+
+            Vector4f position = ClothingMesh.this.position;
+            Vector3f normal = ClothingMesh.this.normal;
+
+            for (int i = 0; i < data.length; i += VERTEX_SIZE) {
+                position.set(
+                        data[i] + data[i + 8] * grow,
+                        data[i + 1] + data[i + 9] * grow,
+                        data[i + 2] + data[i + 10] * grow,
+                        1.0F
+                );
+                position.transform(matrix);
+                normal.set(data[i + 5], data[i + 6], data[i + 7]);
+                normal.transform(normalMatrix);
+
+                pVertexConsumer.vertex(
+                        position.x(), position.y(), position.z(),
+                        pRed, pGreen, pBlue, pAlpha,
+                        data[i + 3], data[i + 4],
+                        pPackedOverlay, pPackedLight,
+                        normal.x(), normal.y(), normal.z()
+                );
+            }
+
+            for (int i = 0; i < this.children.size(); i++) {
+                this.children.get(i).render(
+                        pPoseStack, pVertexConsumer, pPackedLight, pPackedOverlay, pRed, pGreen, pBlue, pAlpha
+                );
+            }
+
+            pPoseStack.popPose();
+        }
+    }
+
+    /**
+     * Only accepts the bulk vertex method, which is all {@link ModelPart} uses.
+     */
+    protected static class CaptureConsumer implements VertexConsumer {
+        protected final FloatArrayList data = new FloatArrayList();
+
+        @Override
+        public void vertex(
+                float pX, float pY, float pZ,
+                float pRed, float pGreen, float pBlue, float pAlpha,
+                float pTexU, float pTexV,
+                int pOverlayUV, int pLightmapUV,
+                float pNormalX, float pNormalY, float pNormalZ
+        ) {
+            this.data.add(pX);
+            this.data.add(pY);
+            this.data.add(pZ);
+            this.data.add(pTexU);
+            this.data.add(pTexV);
+            this.data.add(pNormalX);
+            this.data.add(pNormalY);
+            this.data.add(pNormalZ);
+            // signs; filled in once the cube is complete
+            this.data.add(0.0F);
+            this.data.add(0.0F);
+            this.data.add(0.0F);
+        }
+
+        @Override
+        public @NotNull VertexConsumer vertex(double pX, double pY, double pZ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull VertexConsumer color(int pRed, int pGreen, int pBlue, int pAlpha) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull VertexConsumer uv(float pU, float pV) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull VertexConsumer overlayCoords(int pU, int pV) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull VertexConsumer uv2(int pU, int pV) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull VertexConsumer normal(float pX, float pY, float pZ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endVertex() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void defaultColor(int pDefaultR, int pDefaultG, int pDefaultB, int pDefaultA) {}
+
+        @Override
+        public void unsetDefaultColor() {}
+    }
+}
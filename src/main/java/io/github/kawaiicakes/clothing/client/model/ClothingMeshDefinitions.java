@@ -2,44 +2,98 @@ package io.github.kawaiicakes.clothing.client.model;
 
 import com.mojang.logging.LogUtils;
 import io.github.kawaiicakes.clothing.client.HumanoidClothingLayer;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
 import net.minecraft.client.model.*;
-import net.minecraft.client.model.geom.EntityModelSet;
 import net.minecraft.client.model.geom.ModelLayerLocation;
 import net.minecraft.client.model.geom.ModelPart;
 import net.minecraft.client.model.geom.PartPose;
 import net.minecraft.client.model.geom.builders.*;
 import net.minecraft.client.renderer.entity.LivingEntityRenderer;
+import net.minecraft.client.renderer.entity.RenderLayerParent;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.event.EntityRenderersEvent;
-import net.minecraftforge.eventbus.api.SubscribeEvent;
-import net.minecraftforge.fml.common.Mod;
-import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-
-import static io.github.kawaiicakes.clothing.ClothingMod.MOD_ID;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- * This class takes care of registering {@link LayerDefinition}s, similarly to
- * {@link net.minecraft.client.model.geom.LayerDefinitions} but tries not to cache anything and does a lot of
- * the "heavy lifting" so that {@link io.github.kawaiicakes.clothing.ClothingMod} doesn't need 10,000,000,000 imports.
- * I doubt a modder would need to access the {@link ModelLayerLocation}s of the mesh layers anyway, but their names
- * are generated in {@link #registerLayers(EntityRenderersEvent.RegisterLayerDefinitions)} and
- * {@link #generateModelLayerLocation(String, float)} if you are curious.
+ * This class takes care of creating {@link LayerDefinition}s, similarly to
+ * {@link net.minecraft.client.model.geom.LayerDefinitions} and does a lot of the "heavy lifting" so that
+ * {@link io.github.kawaiicakes.clothing.ClothingMod} doesn't need 10,000,000,000 imports.
+ * <br><br>
+ * The layers are not registered to the {@link net.minecraft.client.model.geom.EntityModelSet}, since that would bake
+ * every one of them at startup whether it is used or not. Instead, each entity type bakes its geometry once, without
+ * any stratum inflation, into a {@link ClothingMesh} the first time it renders clothing; the strata are inflated as
+ * that mesh is drawn. I doubt a modder would need to access the {@link ModelLayerLocation}s of the mesh layers anyway,
+ * but their names are generated in {@link #generateModelLayerLocation(String, float)} if you are curious.
  */
-@Mod.EventBusSubscriber(modid = MOD_ID, bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
 public class ClothingMeshDefinitions {
     protected static Logger LOGGER = LogUtils.getLogger();
 
+    protected static final Map<String, EntityMesh> ENTITY_MESHES = new LinkedHashMap<>();
+
+    static {
+        registerEntityType("minecraft:armor_stand", new EntityMesh(
+                ArmorStandArmorModel::new, ClothingMeshDefinitions::armorStandGeneric, 0.0F
+        ));
+        /*
+            FIXME: I foresee obvious issues with the drowned and piglin meshes due to the extra inflation. The adjacent
+            layers are bigger by less than 0.25 or even 0.02, meaning the extended legs will clip over/into other
+            layers. I need to come up with a decent fix for this.
+         */
+        registerEntityType("minecraft:drowned", new EntityMesh(
+                DrownedModel::new, ClothingMeshDefinitions::genericMesh, 0.25F
+        ));
+        registerEntityType("minecraft:giant", new EntityMesh(GiantZombieModel::new));
+        registerEntityType("minecraft:husk", new EntityMesh(ZombieModel::new));
+        registerEntityType("minecraft:player", new EntityMesh(HumanoidModel::new));
+        registerEntityType("minecraft:player_slim", new EntityMesh(HumanoidModel::new));
+        registerEntityType("minecraft:piglin", new EntityMesh(
+                HumanoidModel::new, ClothingMeshDefinitions::genericMesh, 0.02F
+        ));
+        registerEntityType("minecraft:piglin_brute", new EntityMesh(
+                HumanoidModel::new, ClothingMeshDefinitions::genericMesh, 0.02F
+        ));
+        registerEntityType("minecraft:skeleton", new EntityMesh(SkeletonModel::new));
+        registerEntityType("minecraft:stray", new EntityMesh(SkeletonModel::new));
+        registerEntityType("minecraft:wither_skeleton", new EntityMesh(SkeletonModel::new));
+        registerEntityType("minecraft:zombie", new EntityMesh(ZombieModel::new));
+        registerEntityType("minecraft:zombified_piglin", new EntityMesh(
+                HumanoidModel::new, ClothingMeshDefinitions::genericMesh, 0.02F
+        ));
+        registerEntityType("minecraft:zombie_villager", new EntityMesh(
+                ZombieVillagerModel::new, ClothingMeshDefinitions::zombieVillagerGeneric, 0.0F
+        ));
+    }
+
+    /**
+     * Adds clothing rendering to the entity type with the passed key, or replaces how it is modelled. The renderer of
+     * the entity type must have a {@link HumanoidModel}. Call this from the constructor of your mod, on the client
+     * only; the layers are added when {@link EntityRenderersEvent.AddLayers} fires.
+     * <br><br>
+     * Player models are the exception: the keys <code>minecraft:player</code> and <code>minecraft:player_slim</code>
+     * correspond to player skins and not to entity types.
+     */
+    public static void registerEntityType(String entityTypeKey, EntityMesh entityMesh) {
+        synchronized (ENTITY_MESHES) {
+            ENTITY_MESHES.put(entityTypeKey, entityMesh);
+        }
+    }
+
+    protected static EntityMesh getEntityMesh(String entityTypeKey) {
+        EntityMesh toReturn;
+        synchronized (ENTITY_MESHES) {
+            toReturn = ENTITY_MESHES.get(entityTypeKey);
+        }
+
+        if (toReturn == null) throw new IllegalArgumentException("Invalid entity!");
+        return toReturn;
+    }
+
     public static float[] cubeDeformations() {
         return new float[] {
                 0.30F,
@@ -64,17 +118,11 @@ public class ClothingMeshDefinitions {
             if (renderer == null) {
                 throw new IllegalArgumentException("Unable to obtain renderer for " + entityTypeKey + "!");
             }
-            float[] cubeDeformations = cubeDeformations();
 
             renderer.addLayer(
-                    new HumanoidClothingLayer<>(
+                    new HumanoidClothingLayer<T, M, HumanoidModel<T>>(
                             renderer,
-                            getModelForEntityType(entityTypeKey, cubeDeformations[0], event),
-                            getModelForEntityType(entityTypeKey, cubeDeformations[1], event),
-                            getModelForEntityType(entityTypeKey, cubeDeformations[2], event),
-                            getModelForEntityType(entityTypeKey, cubeDeformations[3], event),
-                            getModelForEntityType(entityTypeKey, cubeDeformations[4], event),
-                            getModelForEntityType(entityTypeKey, cubeDeformations[5], event)
+                            meshFactoryForEntityType(entityTypeKey)
                     )
             );
         } catch (RuntimeException e) {
@@ -82,39 +130,56 @@ public class ClothingMeshDefinitions {
         }
     }
 
-    @Nullable
-    public static <T extends LivingEntity, M extends HumanoidModel<T>> M getModelForEntityType(
-            String entityTypeKey, float layerDeformation, EntityRenderersEvent.AddLayers event
-    ) {
-        if (Arrays.stream(getEntityTypeKey()).noneMatch((e) -> e.equals(entityTypeKey)))
-            throw new IllegalArgumentException("Invalid entity!");
+    /**
+     * @return a supplier of the {@link ClothingMesh} of the passed entity type; for use with
+     *          {@link HumanoidClothingLayer#HumanoidClothingLayer(RenderLayerParent, Supplier)}. Nothing is baked until
+     *          the supplier is called.
+     */
+    public static <T extends LivingEntity, A extends HumanoidModel<T>>
+    Supplier<ClothingMesh<A>> meshFactoryForEntityType(String entityTypeKey) {
+        getEntityMesh(entityTypeKey);
+
+        return () -> new ClothingMesh<A>(
+                generateSharedMeshDefinition(entityTypeKey),
+                512, 256,
+                (root) -> constructModel(entityTypeKey, root),
+                stratumInflations(entityTypeKey)
+        );
+    }
 
-        final EntityModelSet modelSet = event.getEntityModels();
+    /**
+     * The cube inflation each {@link MeshStratum} is drawn with on the passed entity type, indexed by ordinal. This is
+     * {@link #cubeDeformations()} plus whatever extra the entity type needs for its strata to clear its own model.
+     * @see EntityMesh#strataInflation()
+     */
+    public static float[] stratumInflations(String entityTypeKey) {
+        float[] toReturn = cubeDeformations();
+        float extra = getEntityMesh(entityTypeKey).strataInflation();
 
-        ModelPart modelPart = modelSet.bakeLayer(generateModelLayerLocation(entityTypeKey, layerDeformation));
+        for (MeshStratum stratum : MeshStratum.values()) {
+            toReturn[stratum.ordinal()] += extraInflation(stratum, extra);
+        }
 
-        Constructor<?> objConstructor = getModelConstructorForEntityType(entityTypeKey);
+        return toReturn;
+    }
 
-        M toReturn = null;
-        try {
-            assert objConstructor != null;
-            Class<?> constructorClazz = objConstructor.getDeclaringClass();
-            if (!(HumanoidModel.class.isAssignableFrom(constructorClazz))) throw new ClassCastException();
-            //noinspection unchecked
-            Constructor<M> modelConstructor
-                    = (Constructor<M>) objConstructor;
-            toReturn = modelConstructor.newInstance(modelPart);
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
-            LOGGER.error("Unable to instantiate model for render on entity type {}!", entityTypeKey, e);
-        } catch (NullPointerException e) {
-            LOGGER.error(
-                    "Model constructor with ModelPart parameter does not exist for entity type {}!", entityTypeKey, e
-            );
-        } catch (ClassCastException e) {
-            LOGGER.error(
-                    "Unable to cast constructor for model for entity type {}!", entityTypeKey, e
-            );
-        }
+    protected static float extraInflation(MeshStratum stratum, float strataInflation) {
+        return stratum == MeshStratum.BASE || stratum == MeshStratum.OVER_LEG_ARMOR ? 0.0F : strataInflation;
+    }
+
+    /**
+     * @return the geometry of the passed entity type without any stratum inflation, for use in a {@link ClothingMesh}.
+     */
+    public static MeshDefinition generateSharedMeshDefinition(String entityTypeKey) {
+        return getEntityMesh(entityTypeKey).meshGenerator().apply(CubeDeformation.NONE);
+    }
+
+    public static <T extends LivingEntity, M extends HumanoidModel<T>> M constructModel(
+            String entityTypeKey, ModelPart modelPart
+    ) {
+        // the registered factory is for this entity type's renderer; whose model is an M
+        @SuppressWarnings("unchecked")
+        M toReturn = (M) getEntityMesh(entityTypeKey).modelFactory().apply(modelPart);
         return toReturn;
     }
 
@@ -124,19 +189,7 @@ public class ClothingMeshDefinitions {
     }
 
     public static LayerDefinition generateLayerDefinition(String entityTypeKey, CubeDeformation cubeDeformation) {
-        if (Arrays.stream(getEntityTypeKey()).noneMatch((e) -> e.equals(entityTypeKey)))
-            throw new IllegalArgumentException("Invalid entity!");
-
-        MeshDefinition meshDefinition = switch (entityTypeKey) {
-            case "minecraft:armor_stand" -> armorStandGeneric(cubeDeformation);
-            case "minecraft:drowned" -> drownedGeneric(cubeDeformation);
-            case "minecraft:piglin", "minecraft:piglin_brute", "minecraft:zombified_piglin"
-                    -> piglinGeneric(cubeDeformation);
-            case "minecraft:zombie_villager" -> zombieVillagerGeneric(cubeDeformation);
-            default -> genericMesh(cubeDeformation);
-        };
-
-        return LayerDefinition.create(meshDefinition, 512, 256);
+        return LayerDefinition.create(getEntityMesh(entityTypeKey).meshGenerator().apply(cubeDeformation), 512, 256);
     }
 
     public static MeshDefinition genericMesh(CubeDeformation cubeDeformation) {
@@ -306,87 +359,6 @@ public class ClothingMeshDefinitions {
         return toReturn;
     }
 
-    /*
-        FIXME: I foresee obvious issues with this mesh and the Piglin mesh due to the extending of the CubeDeformation.
-        The adjacent layers are bigger by less than 0.25 or even 0.02, meaning the extended legs will clip over/into
-        other layers. I need to come up with a decent fix for this.
-     */
-    public static MeshDefinition drownedGeneric(CubeDeformation cubeDeformation) {
-        MeshDefinition toReturn = genericMesh(cubeDeformation);
-        PartDefinition parentPart = toReturn.getRoot();
-        for (Map.Entry<String, PartDefinition> entry : parentPart.children.entrySet()) {
-            PartDefinition originalPart = entry.getValue();
-
-            List<CubeDefinition> newPartCubes = new ArrayList<>();
-            for (CubeDefinition cubeDefinition : originalPart.cubes) {
-                CubeDefinition newCube = new CubeDefinition(
-                        cubeDefinition.comment,
-                        cubeDefinition.texCoord.u(),
-                        cubeDefinition.texCoord.v(),
-                        cubeDefinition.origin.x(),
-                        cubeDefinition.origin.y(),
-                        cubeDefinition.origin.z(),
-                        cubeDefinition.dimensions.x(),
-                        cubeDefinition.dimensions.y(),
-                        cubeDefinition.dimensions.z(),
-                        cubeDefinition.grow.extend(
-                                cubeDeformation.equals(new CubeDeformation(0.30F))
-                                        || cubeDeformation.equals(new CubeDeformation(0.80F))
-                                        ? 0.0F : 0.25F
-                        ),
-                        cubeDefinition.mirror,
-                        cubeDefinition.texScale.u(),
-                        cubeDefinition.texScale.v()
-                );
-                newPartCubes.add(newCube);
-            }
-            PartDefinition newPart = new PartDefinition(
-                    newPartCubes,
-                    originalPart.partPose
-            );
-            parentPart.children.put(entry.getKey(), newPart);
-        }
-        return toReturn;
-    }
-
-    public static MeshDefinition piglinGeneric(CubeDeformation cubeDeformation) {
-        MeshDefinition toReturn = genericMesh(cubeDeformation);
-        PartDefinition parentPart = toReturn.getRoot();
-        for (Map.Entry<String, PartDefinition> entry : parentPart.children.entrySet()) {
-            PartDefinition originalPart = entry.getValue();
-
-            List<CubeDefinition> newPartCubes = new ArrayList<>();
-            for (CubeDefinition cubeDefinition : originalPart.cubes) {
-                CubeDefinition newCube = new CubeDefinition(
-                        cubeDefinition.comment,
-                        cubeDefinition.texCoord.u(),
-                        cubeDefinition.texCoord.v(),
-                        cubeDefinition.origin.x(),
-                        cubeDefinition.origin.y(),
-                        cubeDefinition.origin.z(),
-                        cubeDefinition.dimensions.x(),
-                        cubeDefinition.dimensions.y(),
-                        cubeDefinition.dimensions.z(),
-                        cubeDefinition.grow.extend(
-                                cubeDeformation.equals(new CubeDeformation(0.30F))
-                                        || cubeDeformation.equals(new CubeDeformation(0.80F))
-                                        ? 0.0F : 0.02F
-                        ),
-                        cubeDefinition.mirror,
-                        cubeDefinition.texScale.u(),
-                        cubeDefinition.texScale.v()
-                );
-                newPartCubes.add(newCube);
-            }
-            PartDefinition newPart = new PartDefinition(
-                    newPartCubes,
-                    originalPart.partPose
-            );
-            parentPart.children.put(entry.getKey(), newPart);
-        }
-        return toReturn;
-    }
-
     public static MeshDefinition zombieVillagerGeneric(CubeDeformation cubeDeformation) {
         MeshDefinition toReturn = genericMesh(cubeDeformation);
         PartDefinition parentPart = toReturn.getRoot();
@@ -524,66 +496,32 @@ public class ClothingMeshDefinitions {
         return toReturn;
     }
 
-    @SubscribeEvent
-    public static void registerLayers(EntityRenderersEvent.RegisterLayerDefinitions event) {
-        for (String entityType : getEntityTypeKey()) {
-            for (float i : cubeDeformations()) {
-                final float finalI = i;
-
-                event.registerLayerDefinition(
-                        generateModelLayerLocation(entityType, finalI),
-                        () -> generateLayerDefinition(entityType, new CubeDeformation(finalI))
-                );
-            }
-        }
-    }
-
-    @Nullable
-    public static Constructor<?> getModelConstructorForEntityType(
-            String entityType) {
-        try {
-            return switch (entityType) {
-                case "minecraft:armor_stand" -> ArmorStandArmorModel.class.getConstructor(ModelPart.class);
-                case "minecraft:drowned" -> DrownedModel.class.getConstructor(ModelPart.class);
-                case "minecraft:giant" -> GiantZombieModel.class.getConstructor(ModelPart.class);
-                case "minecraft:husk", "minecraft:zombie" -> ZombieModel.class.getConstructor(ModelPart.class);
-                case "minecraft:skeleton", "minecraft:stray", "minecraft:wither_skeleton"
-                        -> SkeletonModel.class.getConstructor(ModelPart.class);
-                case "minecraft:zombie_villager" -> ZombieVillagerModel.class.getConstructor(ModelPart.class);
-                default -> HumanoidModel.class.getConstructor(ModelPart.class);
-            };
-        } catch (NoSuchMethodException e) {
-            LOGGER.error("No such constructor for model of entity type {}!", entityType, e);
-            return null;
-        } catch (ClassCastException e) {
-            LOGGER.error("Unable to cast constructor to appropriate type for entity type {}!", entityType, e);
-            return null;
+    /**
+     * @return the keys of every entity type clothing is rendered on, in the order they were registered.
+     * @see #registerEntityType(String, EntityMesh)
+     */
+    public static String[] getEntityTypeKey() {
+        synchronized (ENTITY_MESHES) {
+            return ENTITY_MESHES.keySet().toArray(new String[0]);
         }
     }
 
     /**
-     * Mainly intended for internal use. This is a good override target for anyone using mixins to add support for
-     * more kinds of entities. Be sure to reflect these changes in the other necessary places!
-     * @see #getModelConstructorForEntityType(String)
-     * @see #generateLayerDefinition(String, CubeDeformation)
-     * @return Returns a <code>Set</code> of all {@link EntityType}s that this model is intended to render on.
+     * How clothing is modelled on one entity type.
+     * @param modelFactory creates the model of the entity type from the root of a baked clothing mesh. The model is
+     *                     posed by copying the pose of the entity's own model onto it.
+     * @param meshGenerator creates the geometry of the entity type for a cube deformation.
+     * @param strataInflation added to the inflation of every stratum besides {@link MeshStratum#BASE} and
+     *                        {@link MeshStratum#OVER_LEG_ARMOR}; for entity types whose own model is bulkier than
+     *                        the generic mesh.
      */
-    public static String[] getEntityTypeKey() {
-        return new String[] {
-                "minecraft:armor_stand",
-                "minecraft:drowned",
-                "minecraft:giant",
-                "minecraft:husk",
-                "minecraft:player",
-                "minecraft:player_slim",
-                "minecraft:piglin",
-                "minecraft:piglin_brute",
-                "minecraft:skeleton",
-                "minecraft:stray",
-                "minecraft:wither_skeleton",
-                "minecraft:zombie",
-                "minecraft:zombified_piglin",
-                "minecraft:zombie_villager",
-        };
+    public record EntityMesh(
+            Function<ModelPart, ? extends HumanoidModel<?>> modelFactory,
+            Function<CubeDeformation, MeshDefinition> meshGenerator,
+            float strataInflation
+    ) {
+        public EntityMesh(Function<ModelPart, ? extends HumanoidModel<?>> modelFactory) {
+            this(modelFactory, ClothingMeshDefinitions::genericMesh, 0.0F);
+        }
     }
 }
@@ -0,0 +1,127 @@
+package io.github.kawaiicakes.clothing.client.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.logging.LogUtils;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.GsonHelper;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the locations of every clothing model which must be registered for baking. Each pack may list the clothing
+ * models of a namespace in a manifest at <code>assets/&lt;namespace&gt;/{@value #MANIFEST_PATH}</code>, as emitted by
+ * {@link io.github.kawaiicakes.clothing.common.data.ClothingItemModelGenerator}. Reading a manifest is far cheaper
+ * than walking the model directories of a large pack.
+ * <br><br>
+ * A namespace in a pack without a manifest has its {@link #MODEL_DIRECTORIES} scanned instead, so packs made before
+ * manifests existed continue to work unchanged.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ClothingModelManifest {
+    protected static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final String MANIFEST_PATH = "clothing_models.json";
+    public static final String MODELS_KEY = "models";
+    public static final String[] MODEL_DIRECTORIES = {
+            "models/clothing",
+            "models/item/clothing",
+            "models/item/clothing/overlays"
+    };
+
+    /**
+     * @return the location of every clothing model in the passed resources, as passed to
+     *          {@link net.minecraftforge.client.event.ModelEvent.RegisterAdditional#register(ResourceLocation)}.
+     */
+    public static Set<ResourceLocation> collectModels(ResourceManager manager) {
+        Set<ResourceLocation> toReturn = new LinkedHashSet<>();
+        int manifests = 0;
+        int scanned = 0;
+
+        for (PackResources pack : manager.listPacks().toList()) {
+            for (String namespace : pack.getNamespaces(PackType.CLIENT_RESOURCES)) {
+                ResourceLocation manifestLocation = new ResourceLocation(namespace, MANIFEST_PATH);
+
+                if (pack.hasResource(PackType.CLIENT_RESOURCES, manifestLocation)) {
+                    try (InputStream stream = pack.getResource(PackType.CLIENT_RESOURCES, manifestLocation)) {
+                        readManifest(stream, toReturn);
+                        manifests++;
+                        continue;
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.error(
+                                "Unable to read clothing model manifest '{}' in pack '{}'! Scanning instead.",
+                                manifestLocation, pack.getName(), e
+                        );
+                    }
+                }
+
+                scanned += scanNamespace(pack, namespace, toReturn);
+            }
+        }
+
+        LOGGER.info(
+                "Registering {} clothing models from {} manifests and {} scanned files.",
+                toReturn.size(), manifests, scanned
+        );
+
+        return toReturn;
+    }
+
+    protected static void readManifest(InputStream stream, Set<ResourceLocation> output) throws IOException {
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            JsonObject manifest = GsonHelper.convertToJsonObject(JsonParser.parseReader(reader), "manifest");
+            JsonArray models = GsonHelper.getAsJsonArray(manifest, MODELS_KEY);
+
+            for (JsonElement model : models) {
+                output.add(new ResourceLocation(GsonHelper.convertToString(model, MODELS_KEY)));
+            }
+        }
+    }
+
+    /**
+     * @return the number of model files found.
+     */
+    protected static int scanNamespace(PackResources pack, String namespace, Set<ResourceLocation> output) {
+        int found = 0;
+
+        for (String directory : MODEL_DIRECTORIES) {
+            Collection<ResourceLocation> files = pack.getResources(
+                    PackType.CLIENT_RESOURCES, namespace, directory, (existing) -> existing.getPath().endsWith(".json")
+            );
+
+            for (ResourceLocation file : files) {
+                output.add(modelLocationOf(file));
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * @param fileLocation the location of a model file, e.g. <code>clothing:models/item/clothing/hoodie.json</code>.
+     * @return the location of the model as registered, e.g. <code>clothing:item/clothing/hoodie</code>.
+     */
+    public static ResourceLocation modelLocationOf(ResourceLocation fileLocation) {
+        String path = fileLocation.getPath();
+        return new ResourceLocation(
+                fileLocation.getNamespace(),
+                path.substring("models/".length(), path.length() - ".json".length())
+        );
+    }
+}
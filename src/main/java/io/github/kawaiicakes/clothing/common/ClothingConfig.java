@@ -0,0 +1,46 @@
+package io.github.kawaiicakes.clothing.common;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Server configuration. Registered in {@link io.github.kawaiicakes.clothing.ClothingMod}.
+ */
+public class ClothingConfig {
+    public static final ForgeConfigSpec SERVER_SPEC;
+    public static final Server SERVER;
+
+    static {
+        Pair<Server, ForgeConfigSpec> server = new ForgeConfigSpec.Builder().configure(Server::new);
+        SERVER_SPEC = server.getRight();
+        SERVER = server.getLeft();
+    }
+
+    /**
+     * Limits on the complexity of clothing stacks, as enforced by {@link ClothingValidator}.
+     */
+    public static class Server {
+        public final ForgeConfigSpec.IntValue maxOverlays;
+        public final ForgeConfigSpec.IntValue maxModels;
+        public final ForgeConfigSpec.IntValue maxPropertyBytes;
+
+        protected Server(ForgeConfigSpec.Builder builder) {
+            builder.comment("Limits on clothing stacks, enforced when they are equipped, picked up or set in creative.")
+                    .push("limits");
+
+            this.maxOverlays = builder
+                    .comment("The most overlays a piece of clothing may carry across all of its strata.")
+                    .defineInRange("maxOverlays", 32, 0, 1024);
+
+            this.maxModels = builder
+                    .comment("The most models a piece of clothing may carry.")
+                    .defineInRange("maxModels", 7, 0, 7);
+
+            this.maxPropertyBytes = builder
+                    .comment("The largest the clothing properties of a stack may be, in bytes of NBT.")
+                    .defineInRange("maxPropertyBytes", 65536, 1024, 2097152);
+
+            builder.pop();
+        }
+    }
+}
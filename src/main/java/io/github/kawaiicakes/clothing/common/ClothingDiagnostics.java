@@ -0,0 +1,146 @@
+package io.github.kawaiicakes.clothing.common;
+
+import com.mojang.logging.LogUtils;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.kawaiicakes.clothing.common.item.ClothingItem.CLOTHING_NAME_KEY;
+import static io.github.kawaiicakes.clothing.common.item.ClothingItem.CLOTHING_PROPERTY_NBT_KEY;
+
+/**
+ * Collects failures from code that runs often, such as rendering and the NBT getters of {@link ClothingItem}; so that a
+ * malformed stack or a missing model is logged once instead of every frame.
+ * <br><br>
+ * Each distinct failure, identified by its message, the item and clothing entry involved and the type and message of
+ * its cause, is logged in full with its stack trace the first time it is reported. Later reports of the same failure
+ * are only counted, and the count is logged each time it reaches a power of ten.
+ */
+public class ClothingDiagnostics {
+    protected static final Logger LOGGER = LogUtils.getLogger();
+    /**
+     * Failures past this many distinct ones are still logged once, but are no longer counted individually.
+     */
+    protected static final int MAX_FAILURES = 1024;
+
+    protected static ClothingDiagnostics INSTANCE;
+
+    protected final Map<Failure, AtomicInteger> failures = new ConcurrentHashMap<>();
+    protected final AtomicInteger overflow = new AtomicInteger();
+
+    protected ClothingDiagnostics() {}
+
+    public static ClothingDiagnostics getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ClothingDiagnostics();
+        }
+
+        return INSTANCE;
+    }
+
+    /**
+     * @param message the message to log; a single <code>{}</code> is replaced by the passed stack.
+     * @param stack the stack involved. Its item and clothing entry are part of what identifies the failure.
+     * @param cause the exception caught, if any.
+     */
+    public void report(String message, ItemStack stack, @Nullable Throwable cause) {
+        Failure failure = new Failure(message, itemOf(stack), entryOf(stack), causeOf(cause));
+        this.record(failure, MessageFormatter.format(message, stack).getMessage(), cause);
+    }
+
+    /**
+     * For failures not involving a single stack. The passed arguments fill the placeholders of the message and are
+     * part of what identifies the failure.
+     */
+    public void report(String message, @Nullable Throwable cause, Object... arguments) {
+        Failure failure = new Failure(message + Arrays.toString(arguments), null, null, causeOf(cause));
+        this.record(failure, MessageFormatter.arrayFormat(message, arguments).getMessage(), cause);
+    }
+
+    /**
+     * @return the number of times each distinct failure was reported.
+     */
+    public Map<Failure, Integer> getCounts() {
+        Map<Failure, Integer> toReturn = new HashMap<>(this.failures.size());
+        this.failures.forEach((failure, count) -> toReturn.put(failure, count.get()));
+        return toReturn;
+    }
+
+    public void clear() {
+        this.failures.clear();
+        this.overflow.set(0);
+    }
+
+    protected void record(Failure failure, String formattedMessage, @Nullable Throwable cause) {
+        AtomicInteger count = this.failures.get(failure);
+
+        if (count == null) {
+            if (this.failures.size() >= MAX_FAILURES) {
+                if (this.overflow.getAndIncrement() == 0)
+                    LOGGER.error("Too many distinct clothing failures; further ones are no longer counted!");
+                return;
+            }
+
+            count = this.failures.computeIfAbsent(failure, (key) -> new AtomicInteger());
+        }
+
+        int occurrences = count.incrementAndGet();
+
+        if (occurrences == 1) {
+            LOGGER.error(
+                    "{} [item: {}, entry: {}]", formattedMessage, failure.item(), failure.entry(), cause
+            );
+        } else if (isPowerOfTen(occurrences)) {
+            LOGGER.warn(
+                    "{} [item: {}, entry: {}] has now occurred {} times.",
+                    formattedMessage, failure.item(), failure.entry(), occurrences
+            );
+        }
+    }
+
+    protected static boolean isPowerOfTen(int value) {
+        while (value >= 10 && value % 10 == 0) value /= 10;
+        return value == 1;
+    }
+
+    @Nullable
+    protected static ResourceLocation itemOf(ItemStack stack) {
+        return ForgeRegistries.ITEMS.getKey(stack.getItem());
+    }
+
+    /**
+     * Reads the entry name without creating any tags; unlike {@link ClothingItem#getClothingName(ItemStack)}.
+     */
+    @Nullable
+    protected static String entryOf(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        if (tag == null || !tag.contains(CLOTHING_PROPERTY_NBT_KEY, Tag.TAG_COMPOUND)) return null;
+
+        CompoundTag properties = tag.getCompound(CLOTHING_PROPERTY_NBT_KEY);
+        return properties.contains(CLOTHING_NAME_KEY, Tag.TAG_STRING) ? properties.getString(CLOTHING_NAME_KEY) : null;
+    }
+
+    @Nullable
+    protected static String causeOf(@Nullable Throwable cause) {
+        return cause == null ? null : cause.getClass().getName() + ": " + cause.getMessage();
+    }
+
+    public record Failure(
+            String message,
+            @Nullable ResourceLocation item,
+            @Nullable String entry,
+            @Nullable String cause
+    ) {}
+}
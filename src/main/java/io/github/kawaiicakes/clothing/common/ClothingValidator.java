@@ -0,0 +1,137 @@
+package io.github.kawaiicakes.clothing.common;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.ModelPartReference;
+import io.github.kawaiicakes.clothing.common.resources.ClothingEntryLoader;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.fml.LogicalSide;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static io.github.kawaiicakes.clothing.common.item.ClothingItem.CLOTHING_PROPERTY_NBT_KEY;
+
+/**
+ * Enforces the limits of {@link ClothingConfig.Server} on clothing stacks arriving on the server from places it does
+ * not control; so that a modified client cannot make every other client draw thousands of overlays.
+ * <br><br>
+ * Overlays and models past their limits are dropped. A stack whose properties are still too large after that is
+ * rejected, and it is up to the caller what that means.
+ * <br><br>
+ * Validation is run on equip, pickup and creative slot updates rather than every tick. The overlay and model counts
+ * are read off their decoded lists and the byte size is measured by writing the properties to a stream which discards
+ * what it is given, so it costs about as much as sending the stack once.
+ * <br><br>
+ * Truncated and rejected stacks are reported through {@link ClothingDiagnostics}, so that a client sending them
+ * repeatedly cannot flood the log.
+ */
+public class ClothingValidator {
+    protected static final ClothingDiagnostics DIAGNOSTICS = ClothingDiagnostics.getInstance();
+
+    public enum Result {
+        VALID,
+        TRUNCATED,
+        REJECTED
+    }
+
+    /**
+     * Validates the passed stack, truncating it in place if necessary.
+     */
+    public static Result validate(ItemStack stack) {
+        if (!(stack.getItem() instanceof ClothingItem clothingItem)) return Result.VALID;
+
+        CompoundTag tag = stack.getTag();
+        if (tag == null || !tag.contains(CLOTHING_PROPERTY_NBT_KEY, Tag.TAG_COMPOUND)) return Result.VALID;
+
+        ClothingConfig.Server config = ClothingConfig.SERVER;
+        Result toReturn = Result.VALID;
+
+        ImmutableListMultimap<MeshStratum, ClothingLayer> overlays = clothingItem.getOverlays(stack);
+        if (overlays.size() > config.maxOverlays.get()) {
+            ImmutableListMultimap.Builder<MeshStratum, ClothingLayer> truncated = ImmutableListMultimap.builder();
+
+            int kept = 0;
+            for (Map.Entry<MeshStratum, ClothingLayer> entry : overlays.entries()) {
+                if (kept++ >= config.maxOverlays.get()) break;
+                truncated.put(entry);
+            }
+
+            clothingItem.setOverlays(stack, truncated.build());
+            toReturn = Result.TRUNCATED;
+        }
+
+        Map<ModelPartReference, ResourceLocation> models = clothingItem.getModels(stack);
+        if (models.size() > config.maxModels.get()) {
+            ImmutableMap.Builder<ModelPartReference, ResourceLocation> truncated = ImmutableMap.builder();
+
+            int kept = 0;
+            for (Map.Entry<ModelPartReference, ResourceLocation> entry : models.entrySet()) {
+                if (kept++ >= config.maxModels.get()) break;
+                truncated.put(entry);
+            }
+
+            clothingItem.setModels(stack, truncated.build());
+            toReturn = Result.TRUNCATED;
+        }
+
+        long size = sizeOf(clothingItem.getClothingPropertiesTag(stack));
+        if (size > config.maxPropertyBytes.get()) {
+            DIAGNOSTICS.report(
+                    "Rejected clothing stack '{}' for the size of its clothing properties.", stack, null
+            );
+            return Result.REJECTED;
+        }
+
+        if (toReturn == Result.TRUNCATED)
+            DIAGNOSTICS.report(
+                    "Truncated clothing stack '{}' to the configured overlay and model limits.", stack, null
+            );
+
+        return toReturn;
+    }
+
+    /**
+     * Validates the passed stack, which is already in the world (e.g. just equipped). A rejected stack has its
+     * properties replaced with those of its clothing entry, or with the defaults of its item if the entry is unknown.
+     */
+    public static void validateInPlace(ItemStack stack) {
+        if (validate(stack) != Result.REJECTED) return;
+
+        ClothingItem clothingItem = (ClothingItem) stack.getItem();
+        ItemStack template = ClothingEntryLoader.getInstance()
+                .getCatalogue(LogicalSide.SERVER)
+                .getStack(clothingItem.getClothingName(stack));
+
+        ItemStack replacement = template.getItem() == clothingItem
+                ? template
+                : clothingItem.getDefaultInstance();
+
+        stack.getOrCreateTag().put(
+                CLOTHING_PROPERTY_NBT_KEY,
+                replacement.getOrCreateTag().getCompound(CLOTHING_PROPERTY_NBT_KEY).copy()
+        );
+    }
+
+    protected static long sizeOf(CompoundTag tag) {
+        CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+
+        try (DataOutputStream output = new DataOutputStream(counter)) {
+            NbtIo.write(tag, output);
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+
+        return counter.getCount();
+    }
+}
@@ -11,6 +11,7 @@ import com.google.gson.JsonPrimitive;
 import com.mojang.logging.LogUtils;
 import com.mojang.serialization.JsonOps;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import io.github.kawaiicakes.clothing.common.resources.ClothingEntryLoader;
 import net.minecraft.data.CachedOutput;
 import net.minecraft.data.DataGenerator;
 import net.minecraft.data.DataProvider;
@@ -20,8 +21,6 @@ import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
-import net.minecraft.util.Mth;
-import net.minecraft.util.RandomSource;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.ai.attributes.Attribute;
 import net.minecraft.world.entity.ai.attributes.AttributeModifier;
@@ -164,10 +163,11 @@ public class ClothingEntryGenerator implements DataProvider {
                 return this;
             }
 
-            String modifierName = attributeLocation + "." + modifiers.get(attribute).size();
+            int index = modifiers.get(attribute).size();
+            String modifierName = attributeLocation + "." + index;
 
             AttributeModifier attributeModifier = new AttributeModifier(
-                    Mth.createInsecureUUID(RandomSource.createNewThreadLocalInstance()),
+                    ClothingEntryLoader.modifierUUID(this.id, attributeLocation.toString(), index),
                     modifierName,
                     amount,
                     operation
@@ -273,8 +273,11 @@ public class ClothingEntryGenerator implements DataProvider {
         public JsonObject serializeToJson() {
             final ItemStack defaultStack = this.clothingItem.getDefaultInstance();
 
-            final CompoundTag defaultStackTag = this.clothingItem.getClothingPropertiesTag(defaultStack).copy();
-            final CompoundTag clothingStackTag = this.clothingItem.getClothingPropertiesTag(this.clothingStack).copy();
+            // entries are read from JSON in schema 1
+            final CompoundTag defaultStackTag
+                    = ClothingSchema.toSchemaOne(this.clothingItem.getClothingPropertiesTag(defaultStack));
+            final CompoundTag clothingStackTag
+                    = ClothingSchema.toSchemaOne(this.clothingItem.getClothingPropertiesTag(this.clothingStack));
 
             final CompoundTag tagForSerialization = new CompoundTag();
 
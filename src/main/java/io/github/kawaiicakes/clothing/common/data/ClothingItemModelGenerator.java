@@ -2,18 +2,31 @@ package io.github.kawaiicakes.clothing.common.data;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
 import io.github.kawaiicakes.clothing.client.model.ClothingItemModel;
+import io.github.kawaiicakes.clothing.client.model.ClothingModelManifest;
 import io.github.kawaiicakes.clothing.common.resources.OverlayDefinitionLoader;
+import net.minecraft.data.CachedOutput;
 import net.minecraft.data.DataGenerator;
+import net.minecraft.data.DataProvider;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.client.model.generators.CustomLoaderBuilder;
 import net.minecraftforge.client.model.generators.ItemModelBuilder;
 import net.minecraftforge.client.model.generators.ItemModelProvider;
 import net.minecraftforge.client.model.generators.ModelFile;
 import net.minecraftforge.common.data.ExistingFileHelper;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
 import static io.github.kawaiicakes.clothing.ClothingMod.MOD_ID;
 
 public class ClothingItemModelGenerator extends ItemModelProvider {
@@ -22,10 +35,21 @@ public class ClothingItemModelGenerator extends ItemModelProvider {
     public static final ModelFile GENERATED = new ModelFile.UncheckedModelFile("item/generated");
     public static final String ITEM_CLOTHING_MODEL_PATH = "item/clothing/";
     public static final String ITEM_OVERLAY_MODEL_PATH = ITEM_CLOTHING_MODEL_PATH + "overlays/";
+    /**
+     * The hand-written models in <code>models/clothing</code> of this mod.
+     */
+    public static final String[] PART_MODELS = {
+            "clothing/error",
+            "clothing/riot_helmet"
+    };
 
     protected final ClothingEntryGenerator clothingEntryGenerator;
     protected final ClothingOverlayGenerator clothingOverlayGenerator;
     protected ImmutableList<OverlayDefinitionLoader.OverlayDefinition> overlays;
+    /**
+     * Every clothing model to be listed in the manifest of its namespace; filled while models are registered.
+     */
+    protected final Map<String, Set<ResourceLocation>> manifests = new TreeMap<>();
 
     public ClothingItemModelGenerator(
             DataGenerator generator, String modid,
@@ -38,6 +62,30 @@ public class ClothingItemModelGenerator extends ItemModelProvider {
         this.clothingOverlayGenerator = clothingOverlayGenerator;
     }
 
+    @Override
+    public void run(@NotNull CachedOutput pCache) throws IOException {
+        this.manifests.clear();
+        super.run(pCache);
+
+        for (Map.Entry<String, Set<ResourceLocation>> manifest : this.manifests.entrySet()) {
+            JsonArray models = new JsonArray();
+            manifest.getValue().forEach((location) -> models.add(location.toString()));
+
+            JsonObject json = new JsonObject();
+            json.add(ClothingModelManifest.MODELS_KEY, models);
+
+            Path path = this.generator.getOutputFolder().resolve(
+                    "assets/" + manifest.getKey() + "/" + ClothingModelManifest.MANIFEST_PATH
+            );
+
+            try {
+                DataProvider.saveStable(pCache, json, path);
+            } catch (IOException e) {
+                LOGGER.error("Couldn't save clothing model manifest for namespace {}!", manifest.getKey(), e);
+            }
+        }
+    }
+
     @Override
     protected void registerModels() {
         if (this.clothingOverlayGenerator.overlays == null || this.clothingOverlayGenerator.overlays.isEmpty())
@@ -48,6 +96,33 @@ public class ClothingItemModelGenerator extends ItemModelProvider {
         this.registerItemModels();
         this.clothingEntryGenerator.buildEntries(this::registerBaseClothingModels);
         this.registerOverlayModels();
+        this.registerPartModels();
+    }
+
+    /**
+     * Adds the passed model to the manifest of its namespace.
+     */
+    public void addToManifest(ResourceLocation modelLocation) {
+        this.manifests.computeIfAbsent(modelLocation.getNamespace(), (namespace) -> new TreeSet<>())
+                .add(modelLocation);
+    }
+
+    public void registerPartModels() {
+        for (String partModel : PART_MODELS) {
+            this.addPartModel(new ResourceLocation(this.modid, partModel));
+        }
+    }
+
+    /**
+     * Adds a hand-written model to the manifest of its namespace if it exists.
+     */
+    public void addPartModel(ResourceLocation modelLocation) {
+        if (!this.existingFileHelper.exists(modelLocation, MODEL)) {
+            LOGGER.warn("Part model {} does not exist and was left out of the manifest!", modelLocation);
+            return;
+        }
+
+        this.addToManifest(modelLocation);
     }
 
     public ItemModelBuilder getBuilderWithNamespace(String namespace, String path) {
@@ -89,6 +164,9 @@ public class ClothingItemModelGenerator extends ItemModelProvider {
         this.getBuilderWithNamespace(entryLoc.getNamespace(), entryName)
                 .parent(GENERATED)
                 .texture("layer0", entryName);
+
+        this.addToManifest(new ResourceLocation(entryLoc.getNamespace(), entryName));
+        builder.clothingItem.getModels(builder.clothingStack).values().forEach(this::addPartModel);
     }
 
     public void registerOverlayModels() {
@@ -101,6 +179,8 @@ public class ClothingItemModelGenerator extends ItemModelProvider {
                             .parent(GENERATED)
                             .texture("layer0", "item/clothing/overlays/empty")
                             .texture("layer1", overlayName);
+
+                    this.addToManifest(new ResourceLocation(overlayLocation.getNamespace(), overlayName));
                 }
         );
     }
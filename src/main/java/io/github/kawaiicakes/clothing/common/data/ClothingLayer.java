@@ -11,6 +11,7 @@ import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -28,6 +29,20 @@ public record ClothingLayer(ResourceLocation textureLocation, int color, @Nullab
         return toReturn;
     }
 
+    /**
+     * Writes this in schema 2. The texture location is written as an index into the passed palette, to which it is
+     * added if absent.
+     * @see ClothingSchema
+     */
+    public CompoundTag toNbt(List<ResourceLocation> palette) {
+        CompoundTag toReturn = new CompoundTag();
+        toReturn.putInt(ClothingSchema.TEXTURE_KEY, ClothingSchema.paletteIndex(palette, this.textureLocation));
+        toReturn.putInt(ClothingSchema.COLOR_KEY, this.color);
+        if (this.clothingVisibility != null)
+            toReturn.putByte(ClothingSchema.VISIBILITY_KEY, this.clothingVisibility.toBitmask());
+        return toReturn;
+    }
+
     public JsonObject toJson() {
         JsonObject toReturn = new JsonObject();
         toReturn.addProperty("texture", this.textureLocation.toString());
@@ -61,6 +76,21 @@ public record ClothingLayer(ResourceLocation textureLocation, int color, @Nullab
         return new ClothingLayer(textureLocation, color, visibility);
     }
 
+    /**
+     * Reads a layer written by {@link #toNbt(List)}. Unlike {@link #fromNbt(CompoundTag)}, malformed layers are not
+     * replaced by a default here; the caller decides what to fall back to.
+     * @param palette the palette the layer was written with.
+     */
+    public static ClothingLayer fromNbt(CompoundTag tag, List<ResourceLocation> palette) {
+        return new ClothingLayer(
+                palette.get(tag.getInt(ClothingSchema.TEXTURE_KEY)),
+                tag.getInt(ClothingSchema.COLOR_KEY),
+                tag.contains(ClothingSchema.VISIBILITY_KEY, Tag.TAG_BYTE)
+                        ? ClothingVisibility.fromBitmask(tag.getByte(ClothingSchema.VISIBILITY_KEY))
+                        : null
+        );
+    }
+
     public static ClothingLayer fromJson(JsonObject json) {
         ResourceLocation textureLocation;
         int color;
@@ -0,0 +1,216 @@
+package io.github.kawaiicakes.clothing.common.data;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.ModelPartReference;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.*;
+
+import static io.github.kawaiicakes.clothing.common.item.ClothingItem.*;
+
+/**
+ * Reads and writes the appearance of a piece of clothing (its meshes, overlays and models) in its clothing properties.
+ * <br><br>
+ * Schema 1 keys strata and parts by name, writes every texture and model location in full and lists the visible parts
+ * of each mesh by name. Schema 2, which is what is written now, stores:
+ * <ul>
+ *     <li>meshes and overlays as lists of layers, each carrying its {@link MeshStratum} as a byte ordinal,</li>
+ *     <li>models as a list of {@link ModelPartReference} byte ordinals and locations,</li>
+ *     <li>visibility as a bitmask as per {@link ClothingVisibility#toBitmask()},</li>
+ *     <li>and every texture and model location once, in a palette shared by the three, which layers and models
+ *     index into.</li>
+ * </ul>
+ * Readers accept both schemas. A stack in schema 1 is rewritten in schema 2 as soon as any of the three is set.
+ * <br><br>
+ * The three are always written together, in order of ordinal, so that the same appearance always yields the same NBT.
+ * New strata and parts must therefore only ever be appended to their enums.
+ */
+public class ClothingSchema {
+    public static final String PALETTE_KEY = "palette";
+    public static final String STRATUM_KEY = "s";
+    public static final String PART_KEY = "p";
+    public static final String TEXTURE_KEY = "t";
+    public static final String COLOR_KEY = "c";
+    public static final String VISIBILITY_KEY = "v";
+
+    /**
+     * Writes the passed appearance to the passed clothing properties in schema 2; replacing what was there.
+     */
+    public static void writeAppearance(
+            CompoundTag properties,
+            Map<MeshStratum, ClothingLayer> meshes,
+            Multimap<MeshStratum, ClothingLayer> overlays,
+            Map<ModelPartReference, ResourceLocation> models
+    ) {
+        List<ResourceLocation> palette = new ArrayList<>();
+
+        ListTag meshTag = new ListTag();
+        ListTag overlayTag = new ListTag();
+        for (MeshStratum stratum : MeshStratum.values()) {
+            ClothingLayer mesh = meshes.get(stratum);
+            if (mesh != null) meshTag.add(layerToNbt(stratum, mesh, palette));
+
+            for (ClothingLayer overlay : overlays.get(stratum)) {
+                overlayTag.add(layerToNbt(stratum, overlay, palette));
+            }
+        }
+
+        ListTag modelTag = new ListTag();
+        for (ModelPartReference part : ModelPartReference.values()) {
+            ResourceLocation model = models.get(part);
+            if (model == null) continue;
+
+            CompoundTag partTag = new CompoundTag();
+            partTag.putByte(PART_KEY, (byte) part.ordinal());
+            partTag.putInt(TEXTURE_KEY, paletteIndex(palette, model));
+            modelTag.add(partTag);
+        }
+
+        ListTag paletteTag = new ListTag();
+        for (ResourceLocation location : palette) {
+            paletteTag.add(StringTag.valueOf(location.toString()));
+        }
+
+        properties.put(PALETTE_KEY, paletteTag);
+        properties.put(MESHES_NBT_KEY, meshTag);
+        properties.put(OVERLAY_NBT_KEY, overlayTag);
+        properties.put(MODELS_NBT_KEY, modelTag);
+    }
+
+    public static Map<MeshStratum, ClothingLayer> readMeshes(CompoundTag properties) {
+        Map<MeshStratum, ClothingLayer> toReturn = new HashMap<>();
+
+        if (properties.get(MESHES_NBT_KEY) instanceof CompoundTag legacyTag) {
+            for (String meshStratum : legacyTag.getAllKeys()) {
+                toReturn.put(
+                        MeshStratum.byName(meshStratum), ClothingLayer.fromNbt(legacyTag.getCompound(meshStratum))
+                );
+            }
+
+            return toReturn;
+        }
+
+        List<ResourceLocation> palette = readPalette(properties);
+        for (Tag tag : properties.getList(MESHES_NBT_KEY, Tag.TAG_COMPOUND)) {
+            CompoundTag layerTag = (CompoundTag) tag;
+            toReturn.put(stratumOf(layerTag), ClothingLayer.fromNbt(layerTag, palette));
+        }
+
+        return toReturn;
+    }
+
+    public static ImmutableListMultimap<MeshStratum, ClothingLayer> readOverlays(CompoundTag properties) {
+        ImmutableListMultimap.Builder<MeshStratum, ClothingLayer> toReturn = ImmutableListMultimap.builder();
+
+        if (properties.get(OVERLAY_NBT_KEY) instanceof CompoundTag legacyTag) {
+            for (String meshStratum : legacyTag.getAllKeys()) {
+                for (Tag overlayTag : legacyTag.getList(meshStratum, Tag.TAG_COMPOUND)) {
+                    toReturn.put(MeshStratum.byName(meshStratum), ClothingLayer.fromNbt((CompoundTag) overlayTag));
+                }
+            }
+
+            return toReturn.build();
+        }
+
+        List<ResourceLocation> palette = readPalette(properties);
+        for (Tag tag : properties.getList(OVERLAY_NBT_KEY, Tag.TAG_COMPOUND)) {
+            CompoundTag layerTag = (CompoundTag) tag;
+            toReturn.put(stratumOf(layerTag), ClothingLayer.fromNbt(layerTag, palette));
+        }
+
+        return toReturn.build();
+    }
+
+    public static ImmutableMap<ModelPartReference, ResourceLocation> readModels(CompoundTag properties) {
+        ImmutableMap.Builder<ModelPartReference, ResourceLocation> toReturn = ImmutableMap.builder();
+
+        if (properties.get(MODELS_NBT_KEY) instanceof CompoundTag legacyTag) {
+            for (String part : legacyTag.getAllKeys()) {
+                if (!(legacyTag.get(part) instanceof StringTag stringTag)) throw new IllegalArgumentException();
+                toReturn.put(ModelPartReference.byName(part), new ResourceLocation(stringTag.getAsString()));
+            }
+
+            return toReturn.buildOrThrow();
+        }
+
+        List<ResourceLocation> palette = readPalette(properties);
+        for (Tag tag : properties.getList(MODELS_NBT_KEY, Tag.TAG_COMPOUND)) {
+            CompoundTag partTag = (CompoundTag) tag;
+            toReturn.put(
+                    ModelPartReference.values()[partTag.getByte(PART_KEY)],
+                    palette.get(partTag.getInt(TEXTURE_KEY))
+            );
+        }
+
+        return toReturn.buildOrThrow();
+    }
+
+    /**
+     * @return a copy of the passed clothing properties with their appearance in schema 1; as used for the JSON of
+     *          clothing entries.
+     */
+    public static CompoundTag toSchemaOne(CompoundTag properties) {
+        CompoundTag toReturn = properties.copy();
+        toReturn.remove(PALETTE_KEY);
+
+        CompoundTag meshTag = new CompoundTag();
+        readMeshes(properties).forEach((stratum, mesh) -> meshTag.put(stratum.getSerializedName(), mesh.toNbt()));
+
+        CompoundTag overlayTag = new CompoundTag();
+        readOverlays(properties).asMap().forEach((stratum, overlays) -> {
+            ListTag overlaysForStratum = new ListTag();
+            for (ClothingLayer overlay : overlays) {
+                overlaysForStratum.add(overlay.toNbt());
+            }
+            overlayTag.put(stratum.getSerializedName(), overlaysForStratum);
+        });
+
+        CompoundTag modelTag = new CompoundTag();
+        readModels(properties).forEach((part, model) -> modelTag.putString(part.getSerializedName(), model.toString()));
+
+        toReturn.put(MESHES_NBT_KEY, meshTag);
+        toReturn.put(OVERLAY_NBT_KEY, overlayTag);
+        toReturn.put(MODELS_NBT_KEY, modelTag);
+
+        return toReturn;
+    }
+
+    /**
+     * @return the index of the passed location in the passed palette; after adding it if absent.
+     */
+    public static int paletteIndex(List<ResourceLocation> palette, ResourceLocation location) {
+        int toReturn = palette.indexOf(location);
+        if (toReturn >= 0) return toReturn;
+
+        palette.add(location);
+        return palette.size() - 1;
+    }
+
+    protected static List<ResourceLocation> readPalette(CompoundTag properties) {
+        ListTag paletteTag = properties.getList(PALETTE_KEY, Tag.TAG_STRING);
+        List<ResourceLocation> toReturn = new ArrayList<>(paletteTag.size());
+
+        for (int i = 0; i < paletteTag.size(); i++) {
+            toReturn.add(new ResourceLocation(paletteTag.getString(i)));
+        }
+
+        return toReturn;
+    }
+
+    protected static CompoundTag layerToNbt(MeshStratum stratum, ClothingLayer layer, List<ResourceLocation> palette) {
+        CompoundTag toReturn = layer.toNbt(palette);
+        toReturn.putByte(STRATUM_KEY, (byte) stratum.ordinal());
+        return toReturn;
+    }
+
+    protected static MeshStratum stratumOf(CompoundTag layerTag) {
+        return MeshStratum.values()[layerTag.getByte(STRATUM_KEY)];
+    }
+}
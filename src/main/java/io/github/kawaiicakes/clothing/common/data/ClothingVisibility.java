@@ -42,6 +42,21 @@ public class ClothingVisibility {
         return toReturn;
     }
 
+    /**
+     * @return the visible parts as a bitmask; bit <code>n</code> is set if the part of ordinal <code>n</code> is
+     *          visible.
+     * @see ClothingSchema
+     */
+    public byte toBitmask() {
+        int toReturn = 0;
+
+        for (ClothingItem.ModelPartReference modelPartReference : this.visibilityMap) {
+            toReturn |= 1 << modelPartReference.ordinal();
+        }
+
+        return (byte) toReturn;
+    }
+
     public JsonArray toJson() {
         JsonArray toReturn = new JsonArray();
 
@@ -68,6 +83,18 @@ public class ClothingVisibility {
         return new ClothingVisibility(toReturn);
     }
 
+    public static ClothingVisibility fromBitmask(byte bitmask) {
+        ClothingItem.ModelPartReference[] toReturn
+                = new ClothingItem.ModelPartReference[Integer.bitCount(bitmask & 0xFF)];
+
+        int i = 0;
+        for (ClothingItem.ModelPartReference part : ClothingItem.ModelPartReference.values()) {
+            if ((bitmask & (1 << part.ordinal())) != 0) toReturn[i++] = part;
+        }
+
+        return new ClothingVisibility(toReturn);
+    }
+
     public static ClothingVisibility fromJson(JsonArray json) {
         ClothingItem.ModelPartReference[] toReturn = new ClothingItem.ModelPartReference[json.size()];
 
@@ -1,13 +1,16 @@
 package io.github.kawaiicakes.clothing.common.item;
 
 import com.google.common.collect.*;
+import com.google.common.hash.Hashing;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.mojang.logging.LogUtils;
 import io.github.kawaiicakes.clothing.client.ClothingItemRenderer;
 import io.github.kawaiicakes.clothing.client.HumanoidClothingLayer;
+import io.github.kawaiicakes.clothing.common.ClothingDiagnostics;
 import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
+import io.github.kawaiicakes.clothing.common.data.ClothingSchema;
 import io.github.kawaiicakes.clothing.common.data.ClothingVisibility;
 import io.github.kawaiicakes.clothing.common.resources.ClothingEntryLoader;
 import net.minecraft.ChatFormatting;
@@ -37,13 +40,16 @@ import net.minecraft.world.item.*;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.LayeredCauldronBlock;
 import net.minecraftforge.client.extensions.common.IClientItemExtensions;
+import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.server.ServerLifecycleHooks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.ParametersAreNullableByDefault;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -58,6 +64,7 @@ import static net.minecraft.core.cauldron.CauldronInteraction.DYED_ITEM;
  */
 public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
     protected static final Logger LOGGER = LogUtils.getLogger();
+    protected static final ClothingDiagnostics DIAGNOSTICS = ClothingDiagnostics.getInstance();
 
     public static final String CLOTHING_PROPERTY_NBT_KEY = "ClothingProperties";
     public static final String CLOTHING_NAME_KEY = "name";
@@ -70,6 +77,25 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
     public static final String MESHES_NBT_KEY = "meshes";
     public static final String OVERLAY_NBT_KEY = "overlays";
     public static final String MODELS_NBT_KEY = "models";
+    public static final String TEMPLATE_REFERENCE_KEY = "template";
+    /**
+     * Fingerprints used to be cached in the clothing properties under this key. It is stripped wherever properties are
+     * loaded or saved and never read; see {@link #getFingerprint(ItemStack)}.
+     */
+    public static final String FINGERPRINT_KEY = "fingerprint";
+    /**
+     * The clothing properties kept by {@link #getAppearanceStack(ItemStack)}.
+     */
+    public static final String[] APPEARANCE_KEYS = {
+            CLOTHING_NAME_KEY,
+            CLOTHING_SLOT_NBT_KEY,
+            TAG_COLOR,
+            DEFAULT_COLOR_KEY,
+            ClothingSchema.PALETTE_KEY,
+            MESHES_NBT_KEY,
+            OVERLAY_NBT_KEY,
+            MODELS_NBT_KEY
+    };
     public static final ResourceLocation DEFAULT_TEXTURE_LOCATION = new ResourceLocation(MOD_ID, "default");
     public static final ResourceLocation ERROR_MODEL_LOCATION = new ResourceLocation(MOD_ID, "error");
     public static final ImmutableMap<ModelPartReference, ResourceLocation> ERROR_MODEL
@@ -103,6 +129,45 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         return InteractionResult.sidedSuccess(false);
     };
 
+    /**
+     * The number of distinct stacks whose tooltip lines are kept per item.
+     */
+    protected static final int MAX_CACHED_TOOLTIPS = 4096;
+    /**
+     * The number of distinct attribute tags whose decoded modifiers are kept.
+     */
+    protected static final int MAX_CACHED_ATTRIBUTES = 1024;
+
+    /**
+     * Keyed by the {@link #getFingerprint(ItemStack)} of a stack as it was when its lines were built; so that a lookup
+     * hashes the properties once rather than copying them and comparing them in full.
+     */
+    protected final Map<Long, TooltipLines> tooltipCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75F, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, TooltipLines> eldest) {
+                    return this.size() > MAX_CACHED_TOOLTIPS;
+                }
+            }
+    );
+
+    /**
+     * Decoded attribute modifiers, keyed by the {@link #fingerprintOf(CompoundTag)} of the attributes tag they were
+     * decoded from; so that recolouring a stack or adding an overlay to it does not decode them again. Shared between
+     * items, since the decoding does not depend on the item.
+     */
+    protected static final Map<Long, ImmutableMultimap<Attribute, AttributeModifier>> ATTRIBUTE_CACHE
+            = Collections.synchronizedMap(
+                    new LinkedHashMap<>(16, 0.75F, true) {
+                        @Override
+                        protected boolean removeEldestEntry(
+                                Map.Entry<Long, ImmutableMultimap<Attribute, AttributeModifier>> eldest
+                        ) {
+                            return this.size() > MAX_CACHED_ATTRIBUTES;
+                        }
+                    }
+            );
+
     public ClothingItem(EquipmentSlot pSlot) {
         super(
                 ArmorMaterials.LEATHER,
@@ -129,7 +194,157 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         if (!tag.contains(CLOTHING_PROPERTY_NBT_KEY, Tag.TAG_COMPOUND))
             tag.put(CLOTHING_PROPERTY_NBT_KEY, new CompoundTag());
 
-        return tag.getCompound(CLOTHING_PROPERTY_NBT_KEY);
+        CompoundTag properties = tag.getCompound(CLOTHING_PROPERTY_NBT_KEY);
+        if (properties.contains(TEMPLATE_REFERENCE_KEY)) this.resolveTemplateReference(tag);
+
+        return properties;
+    }
+
+    /**
+     * Returns a 64-bit hash of the clothing properties of the passed stack, so that stacks of identical content have
+     * identical fingerprints. It is computed from the properties on every call rather than cached against them; the
+     * properties tag may be written to by anything holding the stack (commands, other mods), and nothing tells this
+     * when it is.
+     */
+    public long getFingerprint(ItemStack stack) {
+        return fingerprintOf(this.getClothingPropertiesTag(stack));
+    }
+
+    /**
+     * @return a 64-bit hash of the content of the passed tag.
+     * @see #getFingerprint(ItemStack)
+     */
+    public static long fingerprintOf(CompoundTag tag) {
+        // the string form sorts keys, so it does not depend on the order properties were written in
+        return Hashing.murmur3_128().hashString(tag.getAsString(), StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Returns a copy of the passed stack carrying only what is needed to render it on an entity: its entry, slot,
+     * colours, meshes, overlays and models, and its enchantments for the glint. Sent to the players tracking the
+     * wearer instead of the full stack.
+     * @see io.github.kawaiicakes.clothing.common.network.ClothingPackets.S2CClothingAppearancePacket
+     */
+    public ItemStack getAppearanceStack(ItemStack stack) {
+        ItemStack toReturn = new ItemStack(this, stack.getCount());
+        if (stack.getTag() == null) return toReturn;
+
+        CompoundTag properties = this.getClothingPropertiesTag(stack);
+        CompoundTag appearance = new CompoundTag();
+
+        for (String key : APPEARANCE_KEYS) {
+            Tag value = properties.get(key);
+            if (value != null) appearance.put(key, value.copy());
+        }
+
+        CompoundTag tag = toReturn.getOrCreateTag();
+        tag.put(CLOTHING_PROPERTY_NBT_KEY, appearance);
+
+        Tag enchantments = stack.getTag().get(ItemStack.TAG_ENCH);
+        if (enchantments != null) tag.put(ItemStack.TAG_ENCH, enchantments.copy());
+
+        return toReturn;
+    }
+
+    /**
+     * Reduces the passed stack tag, as about to be saved, to a reference to the clothing entry of the stack: every
+     * clothing property equal to that of the entry as loaded by {@link ClothingEntryLoader} is removed, leaving only
+     * the entry name and what differs from it (e.g. colour, added overlays). Marks the properties so that
+     * {@link #verifyTagAfterLoad(CompoundTag)} restores the removed properties from the entry again.
+     * <br><br>
+     * Stacks whose entry is unknown, or which belong to another item than the entry, are saved in full.
+     * @param stackTag the tag of the stack as written by {@link ItemStack#save(CompoundTag)}. Must not be the tag
+     *                 of a live stack.
+     * @see io.github.kawaiicakes.clothing.mixin.ItemStackMixin
+     */
+    public void writeTemplateReference(CompoundTag stackTag) {
+        if (!stackTag.contains(CLOTHING_PROPERTY_NBT_KEY, Tag.TAG_COMPOUND)) return;
+        CompoundTag properties = stackTag.getCompound(CLOTHING_PROPERTY_NBT_KEY);
+        properties.remove(FINGERPRINT_KEY);
+        if (properties.contains(TEMPLATE_REFERENCE_KEY) || !properties.contains(CLOTHING_NAME_KEY, Tag.TAG_STRING))
+            return;
+
+        try {
+            ResourceLocation entryLocation = ResourceLocation.tryParse(properties.getString(CLOTHING_NAME_KEY));
+            if (entryLocation == null) return;
+
+            ClothingEntryLoader.Catalogue catalogue = ClothingEntryLoader.getInstance().getCatalogue(templateSide());
+            if (!catalogue.stripTemplate(entryLocation, this, properties)) return;
+
+            properties.putBoolean(TEMPLATE_REFERENCE_KEY, true);
+        } catch (Exception e) {
+            DIAGNOSTICS.report("Unable to write clothing properties as a template reference!", e);
+        }
+    }
+
+    /**
+     * Stacks saved in full, such as those saved before template references existed, are left untouched; they are
+     * written as references the next time they are saved.
+     * @see #resolveTemplateReference(CompoundTag)
+     */
+    @Override
+    public void verifyTagAfterLoad(@NotNull CompoundTag pCompoundTag) {
+        super.verifyTagAfterLoad(pCompoundTag);
+        if (pCompoundTag.get(CLOTHING_PROPERTY_NBT_KEY) instanceof CompoundTag properties)
+            properties.remove(FINGERPRINT_KEY);
+        this.resolveTemplateReference(pCompoundTag);
+    }
+
+    /**
+     * Strips any {@link #FINGERPRINT_KEY} a stack arrives with over the network.
+     */
+    @Override
+    public void readShareTag(ItemStack stack, @Nullable CompoundTag nbt) {
+        if (nbt != null && nbt.get(CLOTHING_PROPERTY_NBT_KEY) instanceof CompoundTag properties)
+            properties.remove(FINGERPRINT_KEY);
+        super.readShareTag(stack, nbt);
+    }
+
+    /**
+     * Restores the clothing properties removed by {@link #writeTemplateReference(CompoundTag)} from the clothing entry
+     * of the stack. If the entry is not known yet (e.g. a stack loaded on the client before the server sent its
+     * entries), the reference is kept and resolved again on the next call to {@link #getClothingPropertiesTag}.
+     * @param stackTag the tag of a stack.
+     */
+    public void resolveTemplateReference(CompoundTag stackTag) {
+        if (!stackTag.contains(CLOTHING_PROPERTY_NBT_KEY, Tag.TAG_COMPOUND)) return;
+        CompoundTag properties = stackTag.getCompound(CLOTHING_PROPERTY_NBT_KEY);
+        properties.remove(FINGERPRINT_KEY);
+        if (!properties.contains(TEMPLATE_REFERENCE_KEY)) return;
+
+        String entry = properties.getString(CLOTHING_NAME_KEY);
+
+        try {
+            ResourceLocation entryLocation = ResourceLocation.tryParse(entry);
+
+            if (
+                    entryLocation == null
+                            || !ClothingEntryLoader.getInstance()
+                                    .getCatalogue(templateSide())
+                                    .fillFromTemplate(entryLocation, this, properties)
+            ) {
+                DIAGNOSTICS.report(
+                        "Unable to resolve clothing entry '{}' of a stack! Missing properties use defaults.",
+                        null,
+                        entry
+                );
+                return;
+            }
+
+            properties.remove(TEMPLATE_REFERENCE_KEY);
+        } catch (Exception e) {
+            DIAGNOSTICS.report("Unable to resolve clothing entry '{}' of a stack!", e, entry);
+        }
+    }
+
+    /**
+     * Stacks are saved and loaded without a level at hand, and often off the server thread (e.g. chunks loaded by
+     * worker threads); so the side cannot be taken from either. Template references are therefore written and
+     * resolved against the catalogue of the server running in this process if there is one, which the client
+     * catalogue in the same process was received from anyway; and against the client catalogue otherwise.
+     */
+    protected static LogicalSide templateSide() {
+        return ServerLifecycleHooks.getCurrentServer() != null ? LogicalSide.SERVER : LogicalSide.CLIENT;
     }
 
     /**
@@ -168,11 +383,13 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             CompoundTag properties = this.getClothingPropertiesTag(stack);
 
             if (!properties.contains(MAX_DAMAGE_KEY, Tag.TAG_INT))
-                properties.putInt(MAX_DAMAGE_KEY, this.material.getDurabilityForSlot(this.getSlot()));
+                this.getClothingPropertiesTag(stack).putInt(
+                        MAX_DAMAGE_KEY, this.material.getDurabilityForSlot(this.getSlot())
+                );
 
             return this.getClothingPropertiesTag(stack).getInt(MAX_DAMAGE_KEY);
         } catch (Exception e) {
-            LOGGER.error("Unable to get clothing durability for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to get clothing durability for ItemStack '{}'!", stack, e);
             // lol
             return 420;
         }
@@ -182,7 +399,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             this.getClothingPropertiesTag(stack).putInt(MAX_DAMAGE_KEY, durability);
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing durability for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to set clothing durability for ItemStack '{}'!", stack, e);
         }
     }
 
@@ -235,11 +452,13 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             CompoundTag properties = this.getClothingPropertiesTag(itemStack);
 
             if (!properties.contains(CLOTHING_NAME_KEY, Tag.TAG_STRING))
-                properties.putString(CLOTHING_NAME_KEY, DEFAULT_TEXTURE_LOCATION.toString());
+                this.getClothingPropertiesTag(itemStack).putString(
+                        CLOTHING_NAME_KEY, DEFAULT_TEXTURE_LOCATION.toString()
+                );
 
             return new ResourceLocation(properties.getString(CLOTHING_NAME_KEY));
         } catch (Exception e) {
-            LOGGER.error("Unable to return clothing name for ItemStack '{}'!", itemStack);
+            DIAGNOSTICS.report("Unable to return clothing name for ItemStack '{}'!", itemStack, e);
             return DEFAULT_TEXTURE_LOCATION;
         }
     }
@@ -248,7 +467,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             this.getClothingPropertiesTag(itemStack).putString(CLOTHING_NAME_KEY, name.toString());
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing name for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to set clothing name for ItemStack '{}'!", itemStack, e);
         }
     }
 
@@ -265,11 +484,13 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             CompoundTag properties = this.getClothingPropertiesTag(itemStack);
 
             if (!properties.contains(CLOTHING_SLOT_NBT_KEY, Tag.TAG_STRING))
-                properties.putString(CLOTHING_SLOT_NBT_KEY, EquipmentSlot.CHEST.getName());
+                this.getClothingPropertiesTag(itemStack).putString(
+                        CLOTHING_SLOT_NBT_KEY, EquipmentSlot.CHEST.getName()
+                );
 
             return EquipmentSlot.byName(properties.getString(CLOTHING_SLOT_NBT_KEY));
         } catch (Exception e) {
-            LOGGER.error("Unable to get clothing slot for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to get clothing slot for ItemStack '{}'!", itemStack, e);
             return EquipmentSlot.CHEST;
         }
     }
@@ -289,7 +510,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             this.getClothingPropertiesTag(itemStack).putString(CLOTHING_SLOT_NBT_KEY, slot.getName());
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing slot for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to set clothing slot for ItemStack '{}'!", itemStack, e);
         }
     }
 
@@ -298,13 +519,13 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             CompoundTag properties = this.getClothingPropertiesTag(stack);
 
             if (!properties.contains(CLOTHING_LORE_NBT_KEY, Tag.TAG_LIST))
-                properties.put(CLOTHING_LORE_NBT_KEY, new ListTag());
+                this.getClothingPropertiesTag(stack).put(CLOTHING_LORE_NBT_KEY, new ListTag());
 
             ListTag loreTag = properties.getList(CLOTHING_LORE_NBT_KEY, Tag.TAG_STRING);
 
             return deserializeLore(loreTag);
         } catch (Exception e) {
-            LOGGER.error("Unable to return clothing lore from ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to return clothing lore from ItemStack '{}'!", stack, e);
             return List.of();
         }
     }
@@ -319,7 +540,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
 
             this.getClothingPropertiesTag(stack).put(CLOTHING_LORE_NBT_KEY, loreList);
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing lore for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to set clothing lore for ItemStack '{}'!", stack, e);
         }
     }
 
@@ -330,22 +551,14 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
      */
     public Map<MeshStratum, ClothingLayer> getMeshes(ItemStack itemStack) {
         try {
-            Map<MeshStratum, ClothingLayer> toReturn = new HashMap<>();
-
             CompoundTag properties = this.getClothingPropertiesTag(itemStack);
 
-            if (!properties.contains(MESHES_NBT_KEY, Tag.TAG_COMPOUND))
-                properties.put(MESHES_NBT_KEY, new CompoundTag());
-
-            CompoundTag strataTag = properties.getCompound(MESHES_NBT_KEY);
+            if (!properties.contains(MESHES_NBT_KEY))
+                this.getClothingPropertiesTag(itemStack).put(MESHES_NBT_KEY, new ListTag());
 
-            for (String meshStratum : strataTag.getAllKeys()) {
-                toReturn.put(MeshStratum.byName(meshStratum), ClothingLayer.fromNbt(strataTag.getCompound(meshStratum)));
-            }
-
-            return toReturn;
+            return ClothingSchema.readMeshes(properties);
         } catch (Exception e) {
-            LOGGER.error("Unable to get clothing meshes for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to get clothing meshes for ItemStack '{}'!", itemStack, e);
             return defaultMeshes(this.getSlot());
         }
     }
@@ -356,15 +569,14 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
      */
     public void setMeshes(ItemStack itemStack, Map<MeshStratum, ClothingLayer> meshStrata) {
         try {
-            CompoundTag serializedStrata = new CompoundTag();
-
-            for (Map.Entry<MeshStratum, ClothingLayer> entry : meshStrata.entrySet()) {
-                serializedStrata.put(entry.getKey().getSerializedName(), entry.getValue().toNbt());
-            }
-
-            this.getClothingPropertiesTag(itemStack).put(MESHES_NBT_KEY, serializedStrata);
+            ClothingSchema.writeAppearance(
+                    this.getClothingPropertiesTag(itemStack),
+                    meshStrata,
+                    this.getOverlays(itemStack),
+                    this.getModels(itemStack)
+            );
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing meshes for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to set clothing meshes for ItemStack '{}'!", itemStack, e);
         }
     }
 
@@ -374,7 +586,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             existing.put(stratum, mesh);
             this.setMeshes(stack, existing);
         } catch (Exception e) {
-            LOGGER.error("Unable to add clothing mesh for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to add clothing mesh for ItemStack '{}'!", stack, e);
         }
     }
 
@@ -383,28 +595,17 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
      * @return the array of {@link String}s whose values point to the overlay textures.
      */
     public ImmutableListMultimap<MeshStratum, ClothingLayer> getOverlays(ItemStack itemStack) {
-        ImmutableListMultimap.Builder<MeshStratum, ClothingLayer> toReturn = ImmutableListMultimap.builder();
-
         try {
             CompoundTag properties = this.getClothingPropertiesTag(itemStack);
 
-            if (!properties.contains(OVERLAY_NBT_KEY, Tag.TAG_COMPOUND))
-                properties.put(OVERLAY_NBT_KEY, new CompoundTag());
-
-            CompoundTag strataTag = properties.getCompound(OVERLAY_NBT_KEY);
+            if (!properties.contains(OVERLAY_NBT_KEY))
+                this.getClothingPropertiesTag(itemStack).put(OVERLAY_NBT_KEY, new ListTag());
 
-            for (String meshStratum : strataTag.getAllKeys()) {
-                ListTag overlaysForStratum = strataTag.getList(meshStratum, Tag.TAG_COMPOUND);
-                for (Tag overlayTag : overlaysForStratum) {
-                    toReturn.put(MeshStratum.byName(meshStratum), ClothingLayer.fromNbt((CompoundTag) overlayTag));
-                }
-            }
+            return ClothingSchema.readOverlays(properties);
         } catch (Exception e) {
-            LOGGER.error("Unable to obtain clothing overlays from ItemStack '{}'!", itemStack, e);
-            toReturn = ImmutableListMultimap.builder();
+            DIAGNOSTICS.report("Unable to obtain clothing overlays from ItemStack '{}'!", itemStack, e);
+            return ImmutableListMultimap.of();
         }
-
-        return toReturn.build();
     }
 
     /**
@@ -412,24 +613,16 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
      * @param overlays the array of {@link String}s whose values point to the overlay textures.
      */
     public void setOverlays(ItemStack itemStack, Multimap<MeshStratum, ClothingLayer> overlays) {
-        CompoundTag serializedStrata = new CompoundTag();
-
         try {
-            for (Map.Entry<MeshStratum, Collection<ClothingLayer>> entry : overlays.asMap().entrySet()) {
-                ListTag overlaysForStratum = new ListTag();
-
-                for (ClothingLayer layer : entry.getValue()) {
-                    overlaysForStratum.add(layer.toNbt());
-                }
-
-                serializedStrata.put(entry.getKey().getSerializedName(), overlaysForStratum);
-            }
+            ClothingSchema.writeAppearance(
+                    this.getClothingPropertiesTag(itemStack),
+                    this.getMeshes(itemStack),
+                    overlays,
+                    this.getModels(itemStack)
+            );
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing overlays for ItemStack '{}'!", itemStack, e);
-            return;
+            DIAGNOSTICS.report("Unable to set clothing overlays for ItemStack '{}'!", itemStack, e);
         }
-
-        this.getClothingPropertiesTag(itemStack).put(OVERLAY_NBT_KEY, serializedStrata);
     }
 
     /**
@@ -465,7 +658,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
 
             this.setOverlays(stack, edited.build());
         } catch (Exception e) {
-            LOGGER.error("Unable to add clothing overlay to ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to add clothing overlay to ItemStack '{}'!", stack, e);
         }
     }
 
@@ -524,7 +717,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             return this.getColor(pStack, this.getOutermostMesh(pStack));
         } catch (Exception e) {
-            LOGGER.error("Unable to get clothing color of outermost mesh from ItemStack '{}'!", pStack, e);
+            DIAGNOSTICS.report("Unable to get clothing color of outermost mesh from ItemStack '{}'!", pStack, e);
             return FALLBACK_COLOR;
         }
     }
@@ -532,20 +725,20 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
     public int getColor(ItemStack pStack, @Nullable MeshStratum stratum) {
         try {
             if (stratum == null || stratum.equals(this.getOutermostMesh(pStack)))
-                return (int) this.getClothingPropertiesTag(pStack).getLong(TAG_COLOR);
+                return this.getClothingPropertiesTag(pStack).getInt(TAG_COLOR);
 
             Map<MeshStratum, ClothingLayer> meshes = this.getMeshes(pStack);
 
             if (meshes == null || meshes.isEmpty())
-                return (int) this.getClothingPropertiesTag(pStack).getLong(TAG_COLOR);
+                return this.getClothingPropertiesTag(pStack).getInt(TAG_COLOR);
 
             ClothingLayer targeted = meshes.get(stratum);
 
-            if (targeted == null) return (int) this.getClothingPropertiesTag(pStack).getLong(TAG_COLOR);
+            if (targeted == null) return this.getClothingPropertiesTag(pStack).getInt(TAG_COLOR);
 
             return targeted.color();
         } catch (Exception e) {
-            LOGGER.error("Unable to get clothing color from ItemStack '{}'!", pStack, e);
+            DIAGNOSTICS.report("Unable to get clothing color from ItemStack '{}'!", pStack, e);
             return FALLBACK_COLOR;
         }
     }
@@ -559,7 +752,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
 
             return meshes.keySet().stream().max(Comparator.comparing(MeshStratum::ordinal)).get();
         } catch (Exception e) {
-            LOGGER.error("Unable to get outermost clothing mesh from ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to get outermost clothing mesh from ItemStack '{}'!", stack, e);
             return MeshStratum.forSlot(this.getSlot());
         }
     }
@@ -573,7 +766,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
 
             return meshes.keySet().stream().min(Comparator.comparing(MeshStratum::ordinal)).get();
         } catch (Exception e) {
-            LOGGER.error("Unable to get outermost clothing mesh from ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to get outermost clothing mesh from ItemStack '{}'!", stack, e);
             return MeshStratum.forSlot(this.getSlot());
         }
     }
@@ -583,7 +776,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             this.setColor(pStack, this.getOutermostMesh(pStack), pColor);
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing color for outermost mesh on ItemStack '{}'!", pStack, e);
+            DIAGNOSTICS.report("Unable to set clothing color for outermost mesh on ItemStack '{}'!", pStack, e);
         }
     }
 
@@ -591,7 +784,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             Map<MeshStratum, ClothingLayer> meshes = this.getMeshes(pStack);
 
-            this.getClothingPropertiesTag(pStack).putLong(TAG_COLOR, pColor);
+            this.getClothingPropertiesTag(pStack).putInt(TAG_COLOR, pColor);
 
             if (meshes == null || meshes.isEmpty() || stratum == null) return;
 
@@ -604,7 +797,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             builder.putAll(meshes);
             builder.put(stratum, dyedMesh);
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing color on ItemStack '{}'!", pStack, e);
+            DIAGNOSTICS.report("Unable to set clothing color on ItemStack '{}'!", pStack, e);
         }
     }
 
@@ -613,7 +806,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             return this.hasCustomColor(pStack, this.getOutermostMesh(pStack));
         } catch (Exception e) {
-            LOGGER.error(
+            DIAGNOSTICS.report(
                     "Unable to determine if a custom clothing color is present on ItemStack '{}' on outermost stratum!",
                     pStack,
                     e
@@ -626,11 +819,11 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             return this.getColor(stack, stratum) != this.getDefaultColor(stack);
         } catch (Exception e) {
-            LOGGER.error(
+            DIAGNOSTICS.report(
                     "Unable to determine if a custom clothing color is present on ItemStack '{}' for strata '{}'!",
+                    e,
                     stack,
-                    stratum,
-                    e
+                    stratum
             );
             return false;
         }
@@ -654,15 +847,15 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
                 break;
             }
         } catch (Exception e) {
-            LOGGER.error("Unable to clear clothing colors present on ItemStack '{}'!", pStack, e);
+            DIAGNOSTICS.report("Unable to clear clothing colors present on ItemStack '{}'!", pStack, e);
         }
     }
 
     public void setDefaultColor(@NotNull ItemStack pStack, int pColor) {
         try {
-            this.getClothingPropertiesTag(pStack).putLong(DEFAULT_COLOR_KEY, pColor);
+            this.getClothingPropertiesTag(pStack).putInt(DEFAULT_COLOR_KEY, pColor);
         } catch (Exception e) {
-            LOGGER.error("Unable to set default clothing color for ItemStack '{}'!", pStack, e);
+            DIAGNOSTICS.report("Unable to set default clothing color for ItemStack '{}'!", pStack, e);
         }
     }
 
@@ -670,12 +863,13 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             CompoundTag properties = this.getClothingPropertiesTag(stack);
 
-            if (!properties.contains(DEFAULT_COLOR_KEY, Tag.TAG_LONG))
-                properties.putLong(DEFAULT_COLOR_KEY, FALLBACK_COLOR);
+            // schema 1 wrote colours as longs
+            if (!properties.contains(DEFAULT_COLOR_KEY, Tag.TAG_ANY_NUMERIC))
+                this.getClothingPropertiesTag(stack).putInt(DEFAULT_COLOR_KEY, FALLBACK_COLOR);
 
-            return (int) properties.getLong(DEFAULT_COLOR_KEY);
+            return properties.getInt(DEFAULT_COLOR_KEY);
         } catch (Exception e) {
-            LOGGER.error("Unable to get default clothing color for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to get default clothing color for ItemStack '{}'!", stack, e);
             return FALLBACK_COLOR;
         }
     }
@@ -687,18 +881,39 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
     ) {
         super.appendHoverText(pStack, pLevel, pTooltipComponents, pIsAdvanced);
 
-        List<Component> lore = this.getClothingLore(pStack);
+        TooltipLines lines = this.getTooltipLines(pStack);
 
-        if (!lore.isEmpty()) {
-            pTooltipComponents.addAll(lore);
-        }
+        pTooltipComponents.addAll(lines.lore());
+        if (pIsAdvanced.isAdvanced()) pTooltipComponents.addAll(lines.advanced());
+    }
+
+    /**
+     * Returns the lore and advanced tooltip lines of the passed stack. These are built once per distinct content of
+     * the clothing properties of a stack, so that neither hovering nor indexing the creative search tree parses lore
+     * JSON or decodes meshes and overlays again.
+     */
+    public TooltipLines getTooltipLines(ItemStack stack) {
+        TooltipLines existing = this.tooltipCache.get(this.getFingerprint(stack));
+        if (existing != null) return existing;
+
+        TooltipLines toReturn = new TooltipLines(
+                Collections.unmodifiableList(this.getClothingLore(stack)),
+                Collections.unmodifiableList(this.buildAdvancedTooltip(stack))
+        );
+
+        // building may have filled in missing defaults; so the key is taken afterwards
+        this.tooltipCache.put(this.getFingerprint(stack), toReturn);
+
+        return toReturn;
+    }
 
-        if (!pIsAdvanced.isAdvanced()) return;
+    protected List<Component> buildAdvancedTooltip(ItemStack stack) {
+        List<Component> toReturn = new ArrayList<>();
 
-        ImmutableListMultimap<MeshStratum, ClothingLayer> overlayNames = this.getOverlays(pStack);
+        ImmutableListMultimap<MeshStratum, ClothingLayer> overlayNames = this.getOverlays(stack);
         if (!overlayNames.isEmpty()) {
-            pTooltipComponents.add(Component.empty());
-            pTooltipComponents.add(
+            toReturn.add(Component.empty());
+            toReturn.add(
                     Component.translatable("item.modifiers.clothing.overlays")
                             .withStyle(ChatFormatting.GRAY)
             );
@@ -708,11 +923,11 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
                 if (!overlayNames.containsKey(mesh)) continue;
                 List<ClothingLayer> overlays = overlayNames.get(mesh);
 
-                if (!firstIndex) pTooltipComponents.add(Component.empty());
+                if (!firstIndex) toReturn.add(Component.empty());
                 else firstIndex = false;
 
                 for (ClothingLayer overlay : overlays) {
-                    pTooltipComponents.add(
+                    toReturn.add(
                             Component.literal(
                                     overlay.textureLocation()
                                             + " - #"
@@ -723,31 +938,33 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             }
         }
 
-        pTooltipComponents.add(Component.empty());
-        pTooltipComponents.add(
+        toReturn.add(Component.empty());
+        toReturn.add(
                 Component.translatable("item.modifiers.clothing.name")
                         .withStyle(ChatFormatting.GRAY)
         );
-        pTooltipComponents.add(
-                Component.literal(this.getClothingName(pStack).toString())
+        toReturn.add(
+                Component.literal(this.getClothingName(stack).toString())
                         .withStyle(ChatFormatting.BLUE)
         );
 
-        pTooltipComponents.add(Component.empty());
-        pTooltipComponents.add(
+        toReturn.add(Component.empty());
+        toReturn.add(
                 Component.translatable("item.modifiers.clothing.color")
                         .withStyle(ChatFormatting.GRAY)
         );
 
-        Map<MeshStratum, ClothingLayer> textures = this.getMeshes(pStack);
+        Map<MeshStratum, ClothingLayer> textures = this.getMeshes(stack);
         for (MeshStratum stratum : textures.keySet()) {
             String meshName = stratum.getSerializedName();
-            String fullString = meshName + " - #" + Integer.toHexString(this.getColor(pStack, stratum)).toUpperCase();
-            pTooltipComponents.add(
+            String fullString = meshName + " - #" + Integer.toHexString(this.getColor(stack, stratum)).toUpperCase();
+            toReturn.add(
                     Component.literal(fullString)
                             .withStyle(ChatFormatting.BLUE)
             );
         }
+
+        return toReturn;
     }
 
     @Override
@@ -776,7 +993,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
                 ResourceLocation attributeLocation = ForgeRegistries.ATTRIBUTES.getKey(entry.getKey());
 
                 if (attributeLocation == null) {
-                    LOGGER.error("Unable to obtain ResourceLocation of Attribute {}!", entry.getKey());
+                    DIAGNOSTICS.report("Unable to obtain ResourceLocation of Attribute {}!", null, entry.getKey());
                     continue;
                 }
 
@@ -785,7 +1002,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
 
             this.getClothingPropertiesTag(stack).put(ATTRIBUTES_KEY, clothingAttributesTag);
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing attributes for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to set clothing attributes for ItemStack '{}'!", stack, e);
         }
     }
 
@@ -794,57 +1011,63 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             if (!this.getSlot().equals(slot)) return super.getAttributeModifiers(slot, stack);
 
-            ImmutableMultimap.Builder<Attribute, AttributeModifier> builder = ImmutableMultimap.builder();
-
             CompoundTag properties = this.getClothingPropertiesTag(stack);
 
             if (!properties.contains(ATTRIBUTES_KEY, Tag.TAG_COMPOUND))
-                properties.put(ATTRIBUTES_KEY, new CompoundTag());
+                this.getClothingPropertiesTag(stack).put(ATTRIBUTES_KEY, new CompoundTag());
 
             CompoundTag clothingAttributesTag = properties.getCompound(ATTRIBUTES_KEY);
+            long fingerprint = fingerprintOf(clothingAttributesTag);
 
-            for (Attribute attribute : ForgeRegistries.ATTRIBUTES.getValues()) {
-                ResourceLocation attributeLocation = ForgeRegistries.ATTRIBUTES.getKey(attribute);
-                if (attributeLocation == null) {
-                    LOGGER.error("Unable to obtain ResourceLocation of Attribute {}!", attribute);
-                    continue;
-                }
-                if (!clothingAttributesTag.contains(attributeLocation.toString())) continue;
+            ImmutableMultimap<Attribute, AttributeModifier> existing = ATTRIBUTE_CACHE.get(fingerprint);
+            if (existing != null) return existing;
 
-                ListTag modifierList = clothingAttributesTag.getList(
-                        attributeLocation.toString(),
-                        Tag.TAG_COMPOUND
-                );
+            ImmutableMultimap<Attribute, AttributeModifier> toReturn = decodeAttributes(clothingAttributesTag);
+            ATTRIBUTE_CACHE.put(fingerprint, toReturn);
 
-                List<AttributeModifier> attributeModifiers = new ArrayList<>(modifierList.size());
-                for (Tag tag : modifierList) {
-                    if (!(tag instanceof CompoundTag compoundTag)) continue;
+            return toReturn;
+        } catch (Exception e) {
+            DIAGNOSTICS.report("Unable to get clothing attributes from ItemStack '{}'!", stack, e);
+            return ImmutableMultimap.of();
+        }
+    }
 
-                    AttributeModifier modifier = AttributeModifier.load(compoundTag);
+    /**
+     * Decodes attribute modifiers as written by {@link #setAttributeModifiers(ItemStack, Multimap)}. Only the keys
+     * present in the passed tag are looked up, rather than every registered attribute.
+     */
+    public static ImmutableMultimap<Attribute, AttributeModifier> decodeAttributes(CompoundTag clothingAttributesTag) {
+        ImmutableMultimap.Builder<Attribute, AttributeModifier> builder = ImmutableMultimap.builder();
+
+        for (String attributeKey : clothingAttributesTag.getAllKeys()) {
+            ResourceLocation attributeLocation = ResourceLocation.tryParse(attributeKey);
+            Attribute attribute = attributeLocation != null
+                    ? ForgeRegistries.ATTRIBUTES.getValue(attributeLocation)
+                    : null;
+
+            if (attribute == null) {
+                DIAGNOSTICS.report("Unknown Attribute {} in clothing attributes!", null, attributeKey);
+                continue;
+            }
 
-                    if (modifier == null) continue;
+            for (Tag tag : clothingAttributesTag.getList(attributeKey, Tag.TAG_COMPOUND)) {
+                if (!(tag instanceof CompoundTag compoundTag)) continue;
 
-                    attributeModifiers.add(modifier);
-                }
+                AttributeModifier modifier = AttributeModifier.load(compoundTag);
+                if (modifier == null) continue;
 
-                builder.putAll(
-                        attribute,
-                        attributeModifiers.toArray(AttributeModifier[]::new)
-                );
+                builder.put(attribute, modifier);
             }
-
-            return builder.build();
-        } catch (Exception e) {
-            LOGGER.error("Unable to get clothing attributes from ItemStack '{}'!", stack, e);
-            return ImmutableMultimap.of();
         }
+
+        return builder.build();
     }
 
     public void setEquipSound(ItemStack stack, ResourceLocation location) {
         try {
             this.getClothingPropertiesTag(stack).putString(EQUIP_SOUND_KEY, location.toString());
         } catch (Exception e) {
-            LOGGER.error("Unable to set clothing equip sound for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to set clothing equip sound for ItemStack '{}'!", stack, e);
         }
     }
 
@@ -853,7 +1076,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             CompoundTag properties = this.getClothingPropertiesTag(stack);
 
             if (!properties.contains(EQUIP_SOUND_KEY, Tag.TAG_STRING))
-                properties.put(
+                this.getClothingPropertiesTag(stack).put(
                         EQUIP_SOUND_KEY, StringTag.valueOf(SoundEvents.ARMOR_EQUIP_LEATHER.getLocation().toString())
                 );
 
@@ -861,7 +1084,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
 
             return ForgeRegistries.SOUND_EVENTS.getValue(equipSoundLocation);
         } catch (Exception e) {
-            LOGGER.error("Unable to get clothing equip sound for ItemStack '{}'!", stack, e);
+            DIAGNOSTICS.report("Unable to get clothing equip sound for ItemStack '{}'!", stack, e);
             return SoundEvents.ARMOR_EQUIP_LEATHER;
         }
     }
@@ -891,35 +1114,26 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         try {
             CompoundTag properties = this.getClothingPropertiesTag(itemStack);
 
-            if (!properties.contains(MODELS_NBT_KEY, Tag.TAG_COMPOUND))
-                properties.put(MODELS_NBT_KEY, new CompoundTag());
-
-            CompoundTag modelPartTag = properties.getCompound(MODELS_NBT_KEY);
-            ImmutableMap.Builder<ModelPartReference, ResourceLocation> toReturn = ImmutableMap.builder();
-
-            for (String part : modelPartTag.getAllKeys()) {
-                if (!(modelPartTag.get(part) instanceof StringTag stringTag)) throw new IllegalArgumentException();
-                toReturn.put(ModelPartReference.byName(part), new ResourceLocation(stringTag.getAsString()));
-            }
+            if (!properties.contains(MODELS_NBT_KEY))
+                this.getClothingPropertiesTag(itemStack).put(MODELS_NBT_KEY, new ListTag());
 
-            return toReturn.buildOrThrow();
+            return ClothingSchema.readModels(properties);
         } catch (Exception e) {
-            LOGGER.error("Unable to deserialize Models from NBT in ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to deserialize Models from NBT in ItemStack '{}'!", itemStack, e);
             return defaultModels();
         }
     }
 
     public void setModels(ItemStack itemStack, Map<ModelPartReference, ResourceLocation> modelParts) {
         try {
-            CompoundTag modelPartMap = new CompoundTag();
-
-            for (Map.Entry<ModelPartReference, ResourceLocation> entry : modelParts.entrySet()) {
-                modelPartMap.putString(entry.getKey().getSerializedName(), entry.getValue().toString());
-            }
-
-            this.getClothingPropertiesTag(itemStack).put(MODELS_NBT_KEY, modelPartMap);
+            ClothingSchema.writeAppearance(
+                    this.getClothingPropertiesTag(itemStack),
+                    this.getMeshes(itemStack),
+                    this.getOverlays(itemStack),
+                    modelParts
+            );
         } catch (Exception e) {
-            LOGGER.error("Unable to set Models for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to set Models for ItemStack '{}'!", itemStack, e);
         }
     }
 
@@ -934,14 +1148,9 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
      */
     public ResourceLocation getModel(ItemStack itemStack, ModelPartReference modelPartReference) {
         try {
-            StringTag stringTag = (StringTag) this.getClothingPropertiesTag(itemStack)
-                    .getCompound(MODELS_NBT_KEY)
-                    .get(modelPartReference.getSerializedName());
-
-            assert stringTag != null;
-            return new ResourceLocation(stringTag.getAsString());
+            return Objects.requireNonNull(this.getModels(itemStack).get(modelPartReference));
         } catch (Exception e) {
-            LOGGER.error("Unable to get Model from ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to get Model from ItemStack '{}'!", itemStack, e);
             return ERROR_MODEL_LOCATION;
         }
     }
@@ -954,7 +1163,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
             existing.put(modelPartReference, layerInfo);
             this.setModels(itemStack, existing);
         } catch (Exception e) {
-            LOGGER.error("Unable to set Model for ItemStack '{}'!", itemStack, e);
+            DIAGNOSTICS.report("Unable to set Model for ItemStack '{}'!", itemStack, e);
         }
     }
 
@@ -966,7 +1175,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
                 toReturn.add(Component.Serializer.fromJson(element.getAsJsonPrimitive().getAsString()));
             }
         } catch (Exception e) {
-            LOGGER.error("Unable to parse clothing lore!", e);
+            DIAGNOSTICS.report("Unable to parse clothing lore!", e);
             toReturn = List.of();
         }
 
@@ -981,7 +1190,7 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
                 toReturn.add(Component.Serializer.fromJson(componentTag.getAsString()));
             }
         } catch (Exception e) {
-            LOGGER.error("Unable to parse clothing lore!", e);
+            DIAGNOSTICS.report("Unable to parse clothing lore!", e);
             toReturn = List.of();
         }
 
@@ -1050,6 +1259,12 @@ public class ClothingItem extends ArmorItem implements DyeableLeatherItem {
         return ImmutableListMultimap.of();
     }
 
+    /**
+     * @param lore the deserialized lore; shown on every tooltip.
+     * @param advanced the lines shown only on advanced tooltips.
+     */
+    public record TooltipLines(List<Component> lore, List<Component> advanced) {}
+
     /**
      * {@link ModelPart} and references to {@link HumanoidClothingLayer}s which contain the models from which parts may
      * come are client-only classes; directly referencing them in {@link net.minecraft.world.item.Item} increases the
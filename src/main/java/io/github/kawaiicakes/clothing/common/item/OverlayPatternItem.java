@@ -1,5 +1,6 @@
 package io.github.kawaiicakes.clothing.common.item;
 
+import com.google.common.collect.ImmutableList;
 import com.mojang.logging.LogUtils;
 import io.github.kawaiicakes.clothing.client.ClothingItemRenderer;
 import io.github.kawaiicakes.clothing.common.resources.OverlayDefinitionLoader;
@@ -31,6 +32,14 @@ public class OverlayPatternItem extends BannerPatternItem {
     public static final String OVERLAY_KEY = "overlay";
     public static final String CREATIVE_KEY = "isCreative";
 
+    /**
+     * The creative stacks of every overlay; built once per list of overlays and shared between callers.
+     */
+    @Nullable
+    protected ImmutableList<ItemStack> displayStacks = null;
+    @Nullable
+    protected ImmutableList<OverlayDefinitionLoader.OverlayDefinition> displayStacksSource = null;
+
     public OverlayPatternItem(Properties pProperties) {
         super(BannerPatternTags.PATTERN_ITEM_SKULL, pProperties);
     }
@@ -84,16 +93,27 @@ public class OverlayPatternItem extends BannerPatternItem {
         if (!this.allowedIn(pCategory)) return;
 
         try {
-            final OverlayDefinitionLoader loader = OverlayDefinitionLoader.getInstance();
+            final ImmutableList<OverlayDefinitionLoader.OverlayDefinition> overlays
+                    = OverlayDefinitionLoader.getInstance().getOverlays();
+
+            // the loader replaces its list whenever overlays are loaded or received
+            if (this.displayStacks == null || this.displayStacksSource != overlays) {
+                ImmutableList.Builder<ItemStack> builder = ImmutableList.builder();
 
-            for (OverlayDefinitionLoader.OverlayDefinition definition : loader.getOverlays()) {
-                ItemStack toAdd = this.getDefaultInstance();
+                for (OverlayDefinitionLoader.OverlayDefinition definition : overlays) {
+                    ItemStack toAdd = this.getDefaultInstance();
 
-                this.setOverlay(toAdd, definition.name());
-                this.setIsCreative(toAdd, true);
+                    this.setOverlay(toAdd, definition.name());
+                    this.setIsCreative(toAdd, true);
 
-                pItems.add(toAdd);
+                    builder.add(toAdd);
+                }
+
+                this.displayStacks = builder.build();
+                this.displayStacksSource = overlays;
             }
+
+            pItems.addAll(this.displayStacks);
         } catch (Exception e) {
             LOGGER.error("Unable to generate clothing entries!", e);
         }
@@ -1,14 +1,22 @@
 package io.github.kawaiicakes.clothing.common.network;
 
 import com.google.common.collect.ImmutableList;
+import com.mojang.datafixers.util.Pair;
+import io.github.kawaiicakes.clothing.client.ClothingClientPacketHandler;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
 import io.github.kawaiicakes.clothing.common.resources.ClothingEntryLoader;
 import io.github.kawaiicakes.clothing.common.resources.OverlayDefinitionLoader;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.network.NetworkDirection;
 import net.minecraftforge.network.NetworkEvent;
 import net.minecraftforge.network.NetworkRegistry;
@@ -16,7 +24,10 @@ import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.simple.SimpleChannel;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static io.github.kawaiicakes.clothing.ClothingMod.MOD_ID;
@@ -49,6 +60,12 @@ public class ClothingPackets {
                 .encoder(S2COverlayPacket::toBytes)
                 .consumerMainThread(S2COverlayPacket::handle)
                 .add();
+
+        net.messageBuilder(S2CClothingAppearancePacket.class, id(), NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(S2CClothingAppearancePacket::new)
+                .encoder(S2CClothingAppearancePacket::toBytes)
+                .consumerMainThread(S2CClothingAppearancePacket::handle)
+                .add();
     }
 
     public static <MSG> void sendToPlayer(MSG msg, @Nullable ServerPlayer player) {
@@ -59,11 +76,26 @@ public class ClothingPackets {
         INSTANCE.send(PacketDistributor.PLAYER.with(() -> player), msg);
     }
 
+    /**
+     * Sends the passed message to every player tracking the passed entity, except the entity itself.
+     */
+    public static <MSG> void sendToTracking(MSG msg, Entity entity) {
+        INSTANCE.send(PacketDistributor.TRACKING_ENTITY.with(() -> entity), msg);
+    }
+
+    /**
+     * @return the passed message as a vanilla packet sent to a client; for code which sends packets through a consumer
+     *          rather than to a player.
+     */
+    public static <MSG> Packet<?> toVanillaPacket(MSG msg) {
+        return INSTANCE.toVanillaPacket(msg, NetworkDirection.PLAY_TO_CLIENT);
+    }
+
     public static class S2CClothingEntryPacket {
         protected final Map<ResourceLocation, ItemStack> clothingEntries;
 
         public S2CClothingEntryPacket(ClothingEntryLoader clothingEntryLoader) {
-            this.clothingEntries = clothingEntryLoader.getStacks();
+            this.clothingEntries = clothingEntryLoader.getCatalogue(LogicalSide.SERVER).getStacks();
         }
 
         public S2CClothingEntryPacket(FriendlyByteBuf buf) {
@@ -87,10 +119,103 @@ public class ClothingPackets {
             contextSupplier.get().enqueueWork(
                     () -> DistExecutor.unsafeRunWhenOn(
                             Dist.CLIENT,
-                            () -> () -> {
-                                ClothingEntryLoader clothingEntryLoader = ClothingEntryLoader.getInstance();
-                                clothingEntryLoader.setStacks(this.clothingEntries);
-                            }
+                            () -> () -> ClothingClientPacketHandler.handleClothingEntries(this.clothingEntries)
+                    )
+            );
+
+            contextSupplier.get().setPacketHandled(true);
+        }
+    }
+
+    /**
+     * Sent in place of the clothing in a {@link ClientboundSetEquipmentPacket} to the players tracking an entity;
+     * both when its clothing changes and when a player starts tracking it. Those players only render the clothing, so
+     * it is sent as per {@link ClothingItem#getAppearanceStack(ItemStack)}; without lore, attributes, equip sound or
+     * durability. The wearer itself receives its full stacks through its inventory as usual.
+     * @see io.github.kawaiicakes.clothing.mixin.LivingEntityMixin
+     * @see io.github.kawaiicakes.clothing.mixin.ServerEntityMixin
+     */
+    public static class S2CClothingAppearancePacket {
+        protected final int entityId;
+        protected final List<Pair<EquipmentSlot, ItemStack>> appearances;
+
+        /**
+         * @param equipment the changed clothing of the entity; as full stacks.
+         */
+        public S2CClothingAppearancePacket(int entityId, List<Pair<EquipmentSlot, ItemStack>> equipment) {
+            this.entityId = entityId;
+            this.appearances = new ArrayList<>(equipment.size());
+
+            for (Pair<EquipmentSlot, ItemStack> pair : equipment) {
+                ItemStack stack = pair.getSecond();
+                this.appearances.add(
+                        Pair.of(
+                                pair.getFirst(),
+                                stack.getItem() instanceof ClothingItem clothingItem
+                                        ? clothingItem.getAppearanceStack(stack)
+                                        : stack
+                        )
+                );
+            }
+        }
+
+        /**
+         * Takes the clothing out of the passed equipment packet. Whatever else it carries is passed to
+         * <code>others</code> as a new equipment packet, and the clothing to <code>clothing</code> as one of these;
+         * either is only called if there is anything to pass. If the packet carries no clothing, it is passed to
+         * <code>others</code> as it is.
+         */
+        public static void split(
+                ClientboundSetEquipmentPacket equipmentPacket,
+                Consumer<ClientboundSetEquipmentPacket> others,
+                Consumer<S2CClothingAppearancePacket> clothing
+        ) {
+            List<Pair<EquipmentSlot, ItemStack>> clothingSlots = new ArrayList<>();
+            List<Pair<EquipmentSlot, ItemStack>> otherSlots = new ArrayList<>();
+
+            for (Pair<EquipmentSlot, ItemStack> pair : equipmentPacket.getSlots()) {
+                (pair.getSecond().getItem() instanceof ClothingItem ? clothingSlots : otherSlots).add(pair);
+            }
+
+            if (clothingSlots.isEmpty()) {
+                others.accept(equipmentPacket);
+                return;
+            }
+
+            if (!otherSlots.isEmpty())
+                others.accept(new ClientboundSetEquipmentPacket(equipmentPacket.getEntity(), otherSlots));
+
+            clothing.accept(new S2CClothingAppearancePacket(equipmentPacket.getEntity(), clothingSlots));
+        }
+
+        public S2CClothingAppearancePacket(FriendlyByteBuf buf) {
+            this.entityId = buf.readVarInt();
+            this.appearances = buf.readList(
+                    (entryBuf) -> Pair.of(entryBuf.readEnum(EquipmentSlot.class), entryBuf.readItem())
+            );
+        }
+
+        public void toBytes(FriendlyByteBuf buf) {
+            buf.writeVarInt(this.entityId);
+            buf.writeCollection(
+                    this.appearances,
+                    (entryBuf, pair) -> {
+                        entryBuf.writeEnum(pair.getFirst());
+                        entryBuf.writeItem(pair.getSecond());
+                    }
+            );
+        }
+
+        public void handle(Supplier<NetworkEvent.Context> contextSupplier) {
+            if (!contextSupplier.get().getDirection().equals(NetworkDirection.PLAY_TO_CLIENT)) return;
+
+            contextSupplier.get().enqueueWork(
+                    () -> DistExecutor.unsafeRunWhenOn(
+                            Dist.CLIENT,
+                            () -> () -> ClothingClientPacketHandler.handleClothingAppearance(
+                                    this.entityId,
+                                    this.appearances
+                            )
                     )
             );
 
@@ -121,7 +246,7 @@ public class ClothingPackets {
             contextSupplier.get().enqueueWork(
                     () -> DistExecutor.unsafeRunWhenOn(
                             Dist.CLIENT,
-                            () -> () -> new OverlayDefinitionLoader().addOverlays(this.overlayDefinitions)
+                            () -> () -> ClothingClientPacketHandler.handleOverlays(this.overlayDefinitions)
                     )
             );
 
@@ -0,0 +1,107 @@
+package io.github.kawaiicakes.clothing.common.resources;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.MeshStratum;
+import io.github.kawaiicakes.clothing.common.item.ClothingItem.ModelPartReference;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.sounds.SoundEvents;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.ai.attributes.Attribute;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.github.kawaiicakes.clothing.common.item.ClothingItem.FALLBACK_COLOR;
+
+/**
+ * A clothing entry as decoded from its JSON file by {@link ClothingEntryLoader#readEntry}. Nothing of the JSON itself
+ * is kept; so that the loader holds one of these per entry rather than the tree of every file in the pack.
+ * <br><br>
+ * Any property which the entry does not declare is null. An entry naming a parent takes those from its parent once
+ * per reload, as per {@link #inherit(ClothingEntry)}; whatever is still missing after that (other than the slot,
+ * which must be declared somewhere along the chain) is filled in with the defaults of the {@link ClothingItem} the
+ * entry is written to.
+ */
+public record ClothingEntry(
+        ResourceLocation id,
+        @Nullable ResourceLocation parent,
+        @Nullable EquipmentSlot slot,
+        @Nullable Integer color,
+        @Nullable Multimap<Attribute, AttributeModifier> modifiers,
+        @Nullable Integer durability,
+        @Nullable ResourceLocation equipSound,
+        @Nullable List<Component> lore,
+        @Nullable Map<MeshStratum, ClothingLayer> meshes,
+        @Nullable Map<ModelPartReference, ResourceLocation> models,
+        @Nullable Multimap<MeshStratum, ClothingLayer> overlays
+) implements NbtStackInitializer {
+    /**
+     * @param parent the resolved entry this declares as its parent.
+     * @return a copy of this with every property this does not declare taken from the passed parent. The decoded
+     *          meshes, models, overlays and lore are shared with the parent rather than copied. Attribute modifiers
+     *          are recreated with the UUIDs of this entry, so that a parent and child worn together do not collide.
+     */
+    public ClothingEntry inherit(ClothingEntry parent) {
+        return new ClothingEntry(
+                this.id,
+                this.parent,
+                this.slot != null ? this.slot : parent.slot,
+                this.color != null ? this.color : parent.color,
+                this.modifiers != null
+                        ? this.modifiers
+                        : parent.modifiers != null
+                                ? ClothingEntryLoader.inheritModifiers(this.id, parent.modifiers)
+                                : null,
+                this.durability != null ? this.durability : parent.durability,
+                this.equipSound != null ? this.equipSound : parent.equipSound,
+                this.lore != null ? this.lore : parent.lore,
+                this.meshes != null ? this.meshes : parent.meshes,
+                this.models != null ? this.models : parent.models,
+                this.overlays != null ? this.overlays : parent.overlays
+        );
+    }
+
+    @Override
+    public void writeToStack(ClothingItem clothingItem, ItemStack clothingStack) {
+        if (this.slot == null) throw new IllegalArgumentException("Slot not declared for clothing entry!");
+
+        int color = this.color != null ? this.color : FALLBACK_COLOR;
+
+        Multimap<Attribute, AttributeModifier> modifiers = this.modifiers != null
+                ? this.modifiers
+                : clothingItem.getDefaultAttributeModifiers(this.slot);
+
+        int durability = this.durability != null
+                ? this.durability
+                : clothingItem.getMaxDamage(clothingStack);
+
+        ResourceLocation equipSound = this.equipSound != null
+                ? this.equipSound
+                : SoundEvents.ARMOR_EQUIP_LEATHER.getLocation();
+
+        Map<MeshStratum, ClothingLayer> meshes = this.meshes != null
+                ? this.meshes
+                : ClothingEntryLoader.defaultMeshForEntry(this.id, this.slot, clothingItem, clothingStack);
+
+        clothingItem.setClothingName(clothingStack, this.id);
+        clothingItem.setSlot(clothingStack, this.slot);
+        clothingItem.setColor(clothingStack, color);
+        clothingItem.setDefaultColor(clothingStack, color);
+        clothingItem.setAttributeModifiers(clothingStack, modifiers);
+        clothingItem.setMaxDamage(clothingStack, durability);
+        clothingItem.setEquipSound(clothingStack, equipSound);
+        clothingItem.setClothingLore(clothingStack, this.lore != null ? this.lore : List.of());
+
+        clothingItem.setMeshes(clothingStack, meshes);
+        clothingItem.setModels(clothingStack, this.models != null ? this.models : ImmutableMap.of());
+        clothingItem.setOverlays(clothingStack, this.overlays != null ? this.overlays : ImmutableMultimap.of());
+    }
+}
@@ -5,56 +5,78 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
 import com.mojang.logging.LogUtils;
-import com.mojang.serialization.JsonOps;
 import io.github.kawaiicakes.clothing.ClothingRegistry;
 import io.github.kawaiicakes.clothing.common.data.ClothingLayer;
+import io.github.kawaiicakes.clothing.common.data.ClothingSchema;
 import io.github.kawaiicakes.clothing.common.data.ClothingVisibility;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
 import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.NbtOps;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
 import net.minecraft.server.packs.resources.ResourceManager;
-import net.minecraft.server.packs.resources.SimpleJsonResourceReloadListener;
-import net.minecraft.sounds.SoundEvents;
+import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
 import net.minecraft.util.GsonHelper;
-import net.minecraft.util.Mth;
-import net.minecraft.util.RandomSource;
 import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.ai.attributes.Attribute;
 import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.item.CreativeModeTab;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static io.github.kawaiicakes.clothing.common.item.ClothingItem.*;
 import static net.minecraft.world.item.DyeableLeatherItem.TAG_COLOR;
 
 /**
- * This class is a {@link SimpleJsonResourceReloadListener} that pretty heavily abstracts stuff related to Minecraft
+ * This class is a {@link SimplePreparableReloadListener} that pretty heavily abstracts stuff related to Minecraft
  * datapack loading. Its purpose is to load data entries for clothing items to appropriate
  * {@link ItemStack}s in the creative menu. This data is held on the server solely to be sent to connecting clients,
  * where the data is finally used.
+ * <br><br>
+ * Entry files are streamed rather than parsed into a JSON tree first; each is decoded straight into a
+ * {@link ClothingEntry} as it is read, so that only one file is ever held in memory as JSON during a reload.
+ * <br><br>
+ * What each side knows is published as a {@link Catalogue}; the server one on every reload and the client one whenever
+ * the server sends its entries. Catalogues are immutable and swapped in whole, so that the render thread, the server
+ * thread and worker threads may all read them without locking and without seeing one half-replaced.
  */
-public class ClothingEntryLoader extends SimpleJsonResourceReloadListener {
+public class ClothingEntryLoader extends SimplePreparableReloadListener<Map<ResourceLocation, ClothingEntry>> {
     protected static final Logger LOGGER = LogUtils.getLogger();
     protected static final Gson GSON = (new GsonBuilder()).setPrettyPrinting().disableHtmlEscaping().create();
+    protected static final String DIRECTORY = "clothing";
+    protected static final String EXTENSION = ".json";
+    /**
+     * The JSON key under which an entry names the entry it inherits undeclared properties from. Entries whose file
+     * name starts with an underscore are not loaded as clothing themselves, but may still be named as parents.
+     */
+    public static final String PARENT_KEY = "parent";
     protected static ClothingEntryLoader INSTANCE;
 
-    protected ImmutableMap<ResourceLocation, NbtStackInitializer> stackEntries = ImmutableMap.of();
-    protected ImmutableMap<ResourceLocation, ItemStack> stacks = ImmutableMap.of();
+    protected volatile ImmutableMap<ResourceLocation, NbtStackInitializer> stackEntries = ImmutableMap.of();
+    /**
+     * Each catalogue is replaced as a whole and never modified, so readers on any thread see either the previous or
+     * the next one in full.
+     * @see #getCatalogue(LogicalSide)
+     */
+    protected volatile Catalogue serverCatalogue = Catalogue.EMPTY;
+    protected volatile Catalogue clientCatalogue = Catalogue.EMPTY;
 
-    protected ClothingEntryLoader() {
-        super(GSON, "clothing");
-    }
+    protected ClothingEntryLoader() {}
 
     public static ClothingEntryLoader getInstance() {
         if (INSTANCE == null) {
@@ -65,78 +87,57 @@ public class ClothingEntryLoader extends SimpleJsonResourceReloadListener {
     }
 
     /**
-     * Returns an instance of the functional interface {@link NbtStackInitializer}, which ultimately
-     * ends up writing the appropriate {@link ItemStack}s to the creative menu.
+     * Decodes a clothing entry from the passed reader without building a tree of the whole file. Scalar properties and
+     * attributes are read token by token; meshes, models, overlays and lore are each parsed on their own and decoded
+     * right away.
      * @param entryId the {@link ResourceLocation} representing the file name of this entry.
-     * @param topElement the {@link JsonObject} holding the serialized JSON data of the entry.
-     * @return the {@link NbtStackInitializer} specifically written to load {@link ItemStack}s for the item.
+     * @param fileReader a reader positioned at the start of the serialized JSON data of the entry.
+     * @return the decoded entry; which writes the appropriate {@link ItemStack}s to the creative menu.
+     * @throws IllegalArgumentException if the entry declares an invalid slot, or none while not naming a parent.
      */
     @NotNull
-    public NbtStackInitializer deserializeFromJson(ResourceLocation entryId, JsonObject topElement) {
-        return (clothingItem, clothingStack) -> {
-            EquipmentSlot slot;
-            int color;
-            Multimap<Attribute, AttributeModifier> modifiers;
-            int durability;
-            ResourceLocation equipSoundLocation;
-            List<Component> lore;
-
-            Map<MeshStratum, ClothingLayer> meshes;
-            Map<ClothingItem.ModelPartReference, ResourceLocation> models;
-            Multimap<MeshStratum, ClothingLayer> overlays;
-
-            try {
-                slot = EquipmentSlot.byName(topElement.getAsJsonPrimitive(CLOTHING_SLOT_NBT_KEY).getAsString());
-
-                color = topElement.has(TAG_COLOR)
-                        ? topElement.getAsJsonPrimitive(TAG_COLOR).getAsInt()
-                        : FALLBACK_COLOR;
-
-                modifiers = topElement.has(ATTRIBUTES_KEY)
-                        ? deserializeAttributes(topElement.getAsJsonObject(ATTRIBUTES_KEY))
-                        : clothingItem.getDefaultAttributeModifiers(slot);
-
-                durability = topElement.has(MAX_DAMAGE_KEY)
-                        ? topElement.getAsJsonPrimitive(MAX_DAMAGE_KEY).getAsInt()
-                        : clothingItem.getMaxDamage(clothingStack);
-
-                equipSoundLocation = topElement.has(EQUIP_SOUND_KEY)
-                        ? new ResourceLocation(topElement.getAsJsonPrimitive(EQUIP_SOUND_KEY).getAsString())
-                        : SoundEvents.ARMOR_EQUIP_LEATHER.getLocation();
-
-                lore = topElement.has(CLOTHING_LORE_NBT_KEY)
-                        ? deserializeLore(topElement.getAsJsonArray(CLOTHING_LORE_NBT_KEY))
-                        : List.of();
-
-                meshes = topElement.has("meshes")
-                        ? meshesFromJson(topElement.getAsJsonObject("meshes"))
-                        : defaultMeshForEntry(entryId, slot, clothingItem, clothingStack);
-
-                models = topElement.has("models")
-                        ? modelsFromJson(topElement.getAsJsonObject("models"))
-                        : ImmutableMap.of();
-
-                overlays = topElement.has("overlays")
-                        ? overlaysFromJson(topElement.getAsJsonObject("overlays"))
-                        : ImmutableMultimap.of();
-            } catch (Exception e) {
-                LOGGER.error("Error deserializing clothing entry!", e);
-                throw e;
+    public static ClothingEntry readEntry(ResourceLocation entryId, Reader fileReader) throws IOException {
+        EquipmentSlot slot = null;
+        Integer color = null;
+        Multimap<Attribute, AttributeModifier> modifiers = null;
+        Integer durability = null;
+        ResourceLocation equipSoundLocation = null;
+        List<Component> lore = null;
+
+        Map<MeshStratum, ClothingLayer> meshes = null;
+        Map<ModelPartReference, ResourceLocation> models = null;
+        Multimap<MeshStratum, ClothingLayer> overlays = null;
+        ResourceLocation parent = null;
+
+        JsonReader reader = new JsonReader(fileReader);
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case CLOTHING_SLOT_NBT_KEY -> slot = EquipmentSlot.byName(reader.nextString());
+                case TAG_COLOR -> color = reader.nextInt();
+                case ATTRIBUTES_KEY -> modifiers = readAttributes(entryId, reader);
+                case MAX_DAMAGE_KEY -> durability = reader.nextInt();
+                case EQUIP_SOUND_KEY -> equipSoundLocation = new ResourceLocation(reader.nextString());
+                case PARENT_KEY -> parent = new ResourceLocation(reader.nextString());
+                case CLOTHING_LORE_NBT_KEY -> lore = List.copyOf(
+                        deserializeLore(JsonParser.parseReader(reader).getAsJsonArray())
+                );
+                case MESHES_NBT_KEY -> meshes = meshesFromJson(JsonParser.parseReader(reader).getAsJsonObject());
+                case MODELS_NBT_KEY -> models = modelsFromJson(JsonParser.parseReader(reader).getAsJsonObject());
+                case OVERLAY_NBT_KEY -> overlays = overlaysFromJson(JsonParser.parseReader(reader).getAsJsonObject());
+                default -> reader.skipValue();
             }
+        }
+
+        reader.endObject();
+
+        if (slot == null && parent == null)
+            throw new IllegalArgumentException("Slot not declared for clothing entry!");
 
-            clothingItem.setClothingName(clothingStack, entryId);
-            clothingItem.setSlot(clothingStack, slot);
-            clothingItem.setColor(clothingStack, color);
-            clothingItem.setDefaultColor(clothingStack, color);
-            clothingItem.setAttributeModifiers(clothingStack, modifiers);
-            clothingItem.setMaxDamage(clothingStack, durability);
-            clothingItem.setEquipSound(clothingStack, equipSoundLocation);
-            clothingItem.setClothingLore(clothingStack, lore);
-
-            clothingItem.setMeshes(clothingStack, meshes);
-            clothingItem.setModels(clothingStack, models);
-            clothingItem.setOverlays(clothingStack, overlays);
-        };
+        return new ClothingEntry(
+                entryId, parent, slot, color, modifiers, durability, equipSoundLocation, lore, meshes, models, overlays
+        );
     }
 
     public static Map<MeshStratum, ClothingLayer> defaultMeshForEntry(
@@ -218,54 +219,42 @@ public class ClothingEntryLoader extends SimpleJsonResourceReloadListener {
         }
     }
 
-    public static ImmutableMultimap<Attribute, AttributeModifier> deserializeAttributes(JsonObject jsonData) {
+    /**
+     * Each modifier is given a UUID derived from the passed entry, its attribute and its index in the array for that
+     * attribute; see {@link #modifierUUID(ResourceLocation, String, int)}. The same entry therefore always yields the
+     * same modifiers, so stacks of it stay stackable and equal across reloads, restarts and servers.
+     * @param entryId the clothing entry the attributes belong to.
+     */
+    public static ImmutableMultimap<Attribute, AttributeModifier> deserializeAttributes(
+            ResourceLocation entryId, JsonObject jsonData
+    ) {
         ImmutableMultimap.Builder<Attribute, AttributeModifier> builder = ImmutableMultimap.builder();
 
         try {
             for (String key : jsonData.keySet()) {
-                Attribute attribute = ForgeRegistries.ATTRIBUTES.getValue(new ResourceLocation(key));
-                if (attribute == null) throw new IllegalArgumentException(
-                        "Passed JSON contains unknown attribute '" + key + "'!"
-                );
-                
+                Attribute attribute = attributeOf(key);
+
                 if (!(jsonData.get(key) instanceof JsonArray jsonArray))
                     throw new IllegalArgumentException(
                             "Passed JSON does not contain an array for attribute '" + key + "'!"
                     );
 
-                List<AttributeModifier> forKey = new ArrayList<>(jsonArray.size());
-
                 int i = 0;
                 for (JsonElement element : jsonArray) {
-                    if (!element.isJsonObject()) throw new IllegalArgumentException(
+                    if (!(element instanceof JsonObject modifierObject)) throw new IllegalArgumentException(
                             "Passed JSON has non-object in attribute array for '" + key + "'!"
                     );
-                    
-                    CompoundTag attributeModifierTag
-                            = (CompoundTag) JsonOps.INSTANCE.convertTo(NbtOps.INSTANCE, element);
-
-                    String attributeName = key + "." + i;
-
-                    UUID slotUUID = Mth.createInsecureUUID(RandomSource.createNewThreadLocalInstance());
 
-                    attributeModifierTag.putUUID(
-                            "UUID",
-                            slotUUID
+                    builder.put(
+                            attribute,
+                            createModifier(
+                                    entryId, attribute, i,
+                                    GsonHelper.getAsDouble(modifierObject, "Amount", 0.0D),
+                                    GsonHelper.getAsInt(modifierObject, "Operation", 0)
+                            )
                     );
-
-                    attributeModifierTag.putString("Name", attributeName);
-
-                    AttributeModifier modifier = AttributeModifier.load(attributeModifierTag);
-
-                    if (modifier == null) throw new IllegalStateException(
-                            "Unable to load AttributeModifier from tag '" + attributeModifierTag + "'!"
-                    );
-                    
-                    forKey.add(modifier);
                     i++;
                 }
-
-                builder.putAll(attribute, forKey.toArray(AttributeModifier[]::new));
             }
         } catch (Exception e) {
             LOGGER.error("Error deserializing clothing attributes!", e);
@@ -276,167 +265,460 @@ public class ClothingEntryLoader extends SimpleJsonResourceReloadListener {
     }
 
     /**
-     * Used primarily for data transfer from server to client. Generates the {@link ItemStack}s specified in the
-     * datapack loaded by this by iterating in {@link #stackEntries}. When called, it fills {@link #stacks} with
-     * the mapped clothing entries.
-     * @return an {@link ImmutableMap} containing the mapped {@link ItemStack}s generated from this loader.
+     * As {@link #deserializeAttributes(ResourceLocation, JsonObject)}, but reads the attributes object from the passed
+     * reader token by token.
      */
-    public ImmutableMap<ResourceLocation, ItemStack> getStacks() {
-        if (this.stacks != null && !this.stacks.isEmpty()) {
-            ImmutableMap.Builder<ResourceLocation, ItemStack> toReturn = ImmutableMap.builder();
+    public static ImmutableMultimap<Attribute, AttributeModifier> readAttributes(
+            ResourceLocation entryId, JsonReader reader
+    ) throws IOException {
+        ImmutableMultimap.Builder<Attribute, AttributeModifier> builder = ImmutableMultimap.builder();
 
-            for (Map.Entry<ResourceLocation, ItemStack> entry : this.stacks.entrySet()) {
-                toReturn.put(entry.getKey(), entry.getValue().copy());
-            }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            Attribute attribute = attributeOf(key);
+
+            reader.beginArray();
+            for (int i = 0; reader.hasNext(); i++) {
+                double amount = 0.0D;
+                int operation = 0;
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "Amount" -> amount = reader.nextDouble();
+                        case "Operation" -> operation = reader.nextInt();
+                        default -> reader.skipValue();
+                    }
+                }
+                reader.endObject();
 
-            return toReturn.build();
+                builder.put(attribute, createModifier(entryId, attribute, i, amount, operation));
+            }
+            reader.endArray();
         }
+        reader.endObject();
 
-        ImmutableMap.Builder<ResourceLocation, ItemStack> stackMapBuilder = ImmutableMap.builder();
+        return builder.build();
+    }
 
-        for (ClothingItem clothingItem : ClothingRegistry.getAllClothing()) {
-            for (Map.Entry<ResourceLocation, NbtStackInitializer> entry : this.stackEntries.entrySet()) {
-                try {
-                    assert clothingItem != null;
-                    ItemStack generated = clothingItem.getDefaultInstance();
-                    entry.getValue().writeToStack(clothingItem, generated);
-                    if (generated.equals(clothingItem.getDefaultInstance())) continue;
-                    if (!clothingItem.getSlot().equals(clothingItem.getSlot(generated))) continue;
-                    stackMapBuilder.put(entry.getKey(), generated);
-                } catch (RuntimeException e) {
-                    LOGGER.error("Exception while attempting to load clothing entry {}! Skipped!", entry.getKey(), e);
-                }
-            }
-        }
+    protected static Attribute attributeOf(String key) {
+        Attribute attribute = ForgeRegistries.ATTRIBUTES.getValue(new ResourceLocation(key));
+        if (attribute == null) throw new IllegalArgumentException(
+                "Passed JSON contains unknown attribute '" + key + "'!"
+        );
 
-        this.stacks = stackMapBuilder.build();
+        return attribute;
+    }
+
+    /**
+     * Builds the modifier at <code>index</code> in the array for <code>attribute</code> directly; the JSON of a
+     * modifier only ever carries its amount and operation, so there is no need to convert it to NBT first.
+     * <br><br>
+     * The UUID and name are derived from the registry name of the attribute rather than the key as written in the
+     * JSON, so that <code>"armor"</code> and <code>"minecraft:armor"</code> yield the same modifier; and the same one
+     * {@link #inheritModifiers(ResourceLocation, Multimap)} and the entry generator derive.
+     */
+    protected static AttributeModifier createModifier(
+            ResourceLocation entryId, Attribute attribute, int index, double amount, int operation
+    ) {
+        String key = String.valueOf(ForgeRegistries.ATTRIBUTES.getKey(attribute));
+
+        return new AttributeModifier(
+                modifierUUID(entryId, key, index),
+                key + "." + index,
+                amount,
+                AttributeModifier.Operation.fromValue(operation)
+        );
+    }
 
-        ImmutableMap.Builder<ResourceLocation, ItemStack> toReturn = ImmutableMap.builder();
+    /**
+     * @return the passed modifiers of a parent entry, with the UUIDs and names the entry of the passed id would have
+     *          given them had it declared them itself.
+     * @see ClothingEntry#inherit(ClothingEntry)
+     */
+    public static ImmutableMultimap<Attribute, AttributeModifier> inheritModifiers(
+            ResourceLocation entryId, Multimap<Attribute, AttributeModifier> parentModifiers
+    ) {
+        ImmutableMultimap.Builder<Attribute, AttributeModifier> builder = ImmutableMultimap.builder();
 
-        for (Map.Entry<ResourceLocation, ItemStack> entry : this.stacks.entrySet()) {
-            toReturn.put(entry.getKey(), entry.getValue().copy());
+        for (Map.Entry<Attribute, Collection<AttributeModifier>> entry : parentModifiers.asMap().entrySet()) {
+            int i = 0;
+            for (AttributeModifier modifier : entry.getValue()) {
+                builder.put(
+                        entry.getKey(),
+                        createModifier(
+                                entryId, entry.getKey(), i, modifier.getAmount(), modifier.getOperation().toValue()
+                        )
+                );
+                i++;
+            }
         }
 
-        return toReturn.build();
+        return builder.build();
     }
 
     /**
-     * Returns the {@link ItemStack}s from {@link #stacks} filtered down to those stacks whose slot is equal to the
-     * slot of the passed instance. Used for {@link ClothingItem#fillItemCategory(CreativeModeTab, NonNullList)}.
-     * @param clothingItemInstance the clothing item instance to return stacks for.
-     * @return an {@link ImmutableList} with no null elements containing the {@link ItemStack}s belonging to the passed
-     *          clothing item.
+     * @return a name-based (version 3) UUID for the modifier at <code>index</code> in the array for
+     *          <code>attribute</code> of the passed entry.
      */
-    public ImmutableList<ItemStack> getStacks(ClothingItem clothingItemInstance) {
-        ImmutableList.Builder<ItemStack> toReturn = ImmutableList.builder();
-
-        toReturn.addAll(
-                this.getStacks().values()
-                        .stream()
-                        .filter(stack -> clothingItemInstance.getSlot().equals(clothingItemInstance.getSlot(stack)))
-                        .toList()
+    public static UUID modifierUUID(ResourceLocation entryId, String attribute, int index) {
+        return UUID.nameUUIDFromBytes(
+                (entryId + "/" + attribute + "/" + index).getBytes(StandardCharsets.UTF_8)
         );
+    }
 
-        return toReturn.build();
+    /**
+     * The server catalogue is built from the loaded entries on every reload, and is what is sent to clients. The
+     * client catalogue is what was last received from the server. In singleplayer both exist in the same process; so
+     * they are kept apart rather than one overwriting the other.
+     * <br><br>
+     * Callers pass the side they belong to rather than this guessing it from the calling thread; worker threads, such
+     * as those loading chunks, are neither.
+     * @return the catalogue last published for the passed logical side. Never null.
+     */
+    public Catalogue getCatalogue(LogicalSide side) {
+        return side.isServer() ? this.serverCatalogue : this.clientCatalogue;
     }
 
     /**
-     * Used mainly for clothing recipes
-     * @param entryLocation the {@link ResourceLocation} of the piece of clothing.
-     * @return the corresponding {@link ItemStack} for the passed location. Returns as {@link ItemStack#EMPTY} if
-     * no such entry location exists.
-     * @see io.github.kawaiicakes.clothing.common.resources.recipe.ClothingRecipe.Serializer
+     * Returns the {@link ItemStack}s of the client catalogue whose slot is equal to the slot of the passed instance.
+     * Used for {@link ClothingItem#fillItemCategory(CreativeModeTab, NonNullList)}.
+     * @param clothingItemInstance the clothing item instance to return stacks for.
+     * @return a list with no null elements containing copies of the {@link ItemStack}s belonging to the passed
+     *          clothing item.
      */
-    @NotNull
-    public ItemStack getStack(ResourceLocation entryLocation) {
-        ImmutableMap<ResourceLocation, ItemStack> stackMap = this.getStacks();
-        return Objects.requireNonNull(stackMap.getOrDefault(entryLocation, ItemStack.EMPTY));
+    public List<ItemStack> getStacks(ClothingItem clothingItemInstance) {
+        return this.getCatalogue(LogicalSide.CLIENT).getStacks(clothingItemInstance.getSlot());
     }
 
     /**
-     * Sets {@link #stacks} for the {@link net.minecraft.world.item.CreativeModeTab}. Used on the client; this
-     * overwrites existing entries since the server will send ALL entries at least once per reload anyway.
-     * @param stacks the mapped {@link ItemStack}s for the clothing entries.
+     * Publishes the passed stacks as the client catalogue. Used on the client; this overwrites existing entries since
+     * the server will send ALL entries at least once per reload anyway.
+     * @param stacks the mapped {@link ItemStack}s for the clothing entries. Must not be modified afterwards.
      * @see net.minecraftforge.event.AddReloadListenerEvent
      */
     public void setStacks(Map<ResourceLocation, ItemStack> stacks) {
-        this.stacks = ImmutableMap.copyOf(stacks);
+        this.clientCatalogue = Catalogue.of(stacks);
     }
 
     /**
-     * Overwrites existing data to avoid duplication of entries when switching worlds or servers.
+     * Overwrites existing data to avoid duplication of entries when switching worlds or servers, and publishes the
+     * server catalogue generated from the passed entries.
      * @param clothingMap a {@link ImmutableMap} of types {@link ResourceLocation} and
      * {@link NbtStackInitializer}. Its key corresponds to the entry's file name; including its namespace.
      * @see net.minecraftforge.event.AddReloadListenerEvent
      */
     public void setEntries(ImmutableMap<ResourceLocation, NbtStackInitializer> clothingMap) {
         this.stackEntries = ImmutableMap.copyOf(clothingMap);
-        // forces a regeneration of the stacks if previous data exists
-        this.stacks = ImmutableMap.of();
+        this.serverCatalogue = Catalogue.of(this.generateStacks(this.stackEntries));
+    }
+
+    /**
+     * Generates the {@link ItemStack}s specified in the datapack loaded by this by running each of the passed
+     * initializers on every {@link ClothingItem} whose slot matches the entry.
+     */
+    protected ImmutableMap<ResourceLocation, ItemStack> generateStacks(
+            ImmutableMap<ResourceLocation, NbtStackInitializer> entries
+    ) {
+        ImmutableMap.Builder<ResourceLocation, ItemStack> stackMapBuilder = ImmutableMap.builder();
+
+        for (ClothingItem clothingItem : ClothingRegistry.getAllClothing()) {
+            for (Map.Entry<ResourceLocation, NbtStackInitializer> entry : entries.entrySet()) {
+                try {
+                    assert clothingItem != null;
+                    ItemStack generated = clothingItem.getDefaultInstance();
+                    entry.getValue().writeToStack(clothingItem, generated);
+                    if (generated.equals(clothingItem.getDefaultInstance())) continue;
+                    if (!clothingItem.getSlot().equals(clothingItem.getSlot(generated))) continue;
+                    stackMapBuilder.put(entry.getKey(), generated);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Exception while attempting to load clothing entry {}! Skipped!", entry.getKey(), e);
+                }
+            }
+        }
+
+        return stackMapBuilder.build();
     }
 
     /**
-     * Does the file reading
+     * Does the file reading. Runs off the main thread; each entry file is decoded and released before the next is
+     * opened.
      */
     @Override
+    @NotNull
     @ParametersAreNonnullByDefault
-    protected void apply(
-            Map<ResourceLocation, JsonElement> pObject, ResourceManager pResourceManager, ProfilerFiller pProfiler
-    ) {
-        ImmutableMap.Builder<ResourceLocation, NbtStackInitializer> builder
-                = ImmutableMap.builder();
+    protected Map<ResourceLocation, ClothingEntry> prepare(ResourceManager pResourceManager, ProfilerFiller pProfiler) {
+        Map<ResourceLocation, ClothingEntry> declared = new HashMap<>();
+
+        Map<ResourceLocation, Resource> files = pResourceManager.listResources(
+                DIRECTORY, (location) -> location.getPath().endsWith(EXTENSION)
+        );
 
-        for(Map.Entry<ResourceLocation, JsonElement> entry : pObject.entrySet()) {
-            ResourceLocation entryId = entry.getKey();
-            if (entryId.getPath().startsWith("_")) continue;
+        for (Map.Entry<ResourceLocation, Resource> file : files.entrySet()) {
+            ResourceLocation entryId = entryIdOf(file.getKey());
             if (entryId.getPath().contains("overlays/")) continue;
 
-            try {
-                final JsonObject jsonEntry
-                        = GsonHelper.convertToJsonObject(entry.getValue(), "top element");
+            try (Reader reader = file.getValue().openAsReader()) {
+                declared.put(entryId, readEntry(entryId, reader));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Parsing error loading clothing entry {}!", entryId, e);
+            }
+        }
 
-                if (!entryContainsSlotDeclaration(jsonEntry))
-                    throw new IllegalArgumentException("Slot not declared for clothing entry!");
+        ImmutableMap.Builder<ResourceLocation, ClothingEntry> builder = ImmutableMap.builder();
 
-                builder.put(
-                        entryId,
-                        this.deserializeFromJson(entryId, jsonEntry)
-                                .and(this.deserializeFromJson(entryId, jsonEntry))
-                );
+        for (Map.Entry<ResourceLocation, ClothingEntry> entry : resolveParents(declared).entrySet()) {
+            if (entry.getKey().getPath().startsWith("_")) continue;
 
-            } catch (IllegalArgumentException | JsonParseException jsonParseException) {
-                LOGGER.error("Parsing error loading clothing entry {}!", entryId, jsonParseException);
+            if (entry.getValue().slot() == null) {
+                LOGGER.error("Slot not declared for clothing entry {} nor any of its parents!", entry.getKey());
+                continue;
             }
+
+            builder.put(entry);
         }
 
-        this.setEntries(builder.build());
-        this.getStacks();
+        return builder.buildOrThrow();
+    }
 
-        LOGGER.info("Loaded {} clothing entries!", this.stackEntries.size());
+    /**
+     * Resolves the parent of every passed entry, parents first, so that each entry is resolved exactly once however
+     * many children it has. Entries whose parent is missing, or which inherit from themselves through their parents,
+     * are logged and left out along with their children.
+     * @param declared the entries as read from their files.
+     * @return the resolved entries.
+     * @see ClothingEntry#inherit(ClothingEntry)
+     */
+    protected static Map<ResourceLocation, ClothingEntry> resolveParents(
+            Map<ResourceLocation, ClothingEntry> declared
+    ) {
+        Map<ResourceLocation, ClothingEntry> resolved = new HashMap<>(declared.size());
+        Set<ResourceLocation> failed = new HashSet<>();
+
+        for (ResourceLocation entryId : declared.keySet()) {
+            resolveParent(entryId, declared, resolved, failed, new LinkedHashSet<>());
+        }
+
+        return resolved;
     }
 
     /**
-     * Since a slot MUST be declared in the {@link NbtStackInitializer} for purposes of preventing duplicated entries,
-     * This method exists to test whether to throw exceptions if the passed JSON data does not declare a slot.
-     * @param jsonObject the {@link JsonObject} clothing data entry to verify.
-     * @return {@code true} if the passed JSON contains valid slot information. {@code false} otherwise.
+     * @param path the entries currently being resolved, in order; each is the parent of the one before it.
+     * @return the resolved entry, or null if it could not be resolved.
      */
-    protected static boolean entryContainsSlotDeclaration(JsonObject jsonObject) {
-        if (jsonObject.get("slot") == null) return false;
-        if (
-                !jsonObject.get("slot").isJsonPrimitive() ||
-                        !jsonObject.getAsJsonPrimitive("slot").isString()
-        ) return false;
-
-        String slotName = jsonObject.getAsJsonPrimitive("slot").getAsString();
+    @Nullable
+    protected static ClothingEntry resolveParent(
+            ResourceLocation entryId,
+            Map<ResourceLocation, ClothingEntry> declared,
+            Map<ResourceLocation, ClothingEntry> resolved,
+            Set<ResourceLocation> failed,
+            LinkedHashSet<ResourceLocation> path
+    ) {
+        ClothingEntry toReturn = resolved.get(entryId);
+        if (toReturn != null || failed.contains(entryId)) return toReturn;
+
+        ClothingEntry entry = declared.get(entryId);
+        if (entry == null) return null;
+
+        if (!path.add(entryId)) {
+            LOGGER.error("Clothing entry {} inherits from itself through {}!", entryId, path);
+            failed.addAll(path);
+            return null;
+        }
+
         try {
-            //noinspection ResultOfMethodCallIgnored
-            EquipmentSlot.byName(slotName);
-        } catch (IllegalArgumentException e) {
-            LOGGER.error("{} is not a valid slot name!", slotName, e);
-            return false;
+            if (entry.parent() == null) {
+                toReturn = entry;
+            } else {
+                ClothingEntry parent = resolveParent(entry.parent(), declared, resolved, failed, path);
+
+                if (parent == null) {
+                    if (!failed.contains(entryId))
+                        LOGGER.error("Parent {} of clothing entry {} is missing or invalid!", entry.parent(), entryId);
+                    failed.add(entryId);
+                    return null;
+                }
+
+                toReturn = entry.inherit(parent);
+            }
+        } finally {
+            path.remove(entryId);
         }
 
-        return true;
+        resolved.put(entryId, toReturn);
+        return toReturn;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void apply(
+            Map<ResourceLocation, ClothingEntry> pObject, ResourceManager pResourceManager, ProfilerFiller pProfiler
+    ) {
+        this.setEntries(ImmutableMap.copyOf(pObject));
+
+        LOGGER.info("Loaded {} clothing entries!", this.stackEntries.size());
+    }
+
+    /**
+     * @return the location of the entry in the passed file; its path relative to {@link #DIRECTORY} without the
+     *          extension.
+     */
+    protected static ResourceLocation entryIdOf(ResourceLocation fileLocation) {
+        String path = fileLocation.getPath();
+        return new ResourceLocation(
+                fileLocation.getNamespace(),
+                path.substring(DIRECTORY.length() + 1, path.length() - EXTENSION.length())
+        );
+    }
+
+    /**
+     * An immutable snapshot of the clothing entries of one logical side, along with its stacks sorted by slot for the
+     * creative tabs and search tree.
+     * <br><br>
+     * The stacks of a catalogue are its own copies and never leave it: getters hand out copies, and template
+     * references are written and resolved by the catalogue itself; so that nothing, including the getters of
+     * {@link ClothingItem} filling in defaults, can modify a catalogue once it is published.
+     */
+    public static class Catalogue {
+        public static final Catalogue EMPTY = new Catalogue(ImmutableMap.of(), ImmutableMap.of());
+        /**
+         * The meshes, overlays and models hold indices into the palette, so neither means anything without the
+         * others. They are stripped and filled in together, as per {@link #stripTemplate} and
+         * {@link #fillFromTemplate}; so that a stack never has its own palette read with the indices of a template.
+         */
+        protected static final List<String> PALETTE_KEYS = List.of(
+                ClothingSchema.PALETTE_KEY, MESHES_NBT_KEY, OVERLAY_NBT_KEY, MODELS_NBT_KEY
+        );
+
+        protected final ImmutableMap<ResourceLocation, ItemStack> stacks;
+        protected final ImmutableMap<EquipmentSlot, ImmutableList<ItemStack>> displayStacks;
+
+        protected Catalogue(
+                ImmutableMap<ResourceLocation, ItemStack> stacks,
+                ImmutableMap<EquipmentSlot, ImmutableList<ItemStack>> displayStacks
+        ) {
+            this.stacks = stacks;
+            this.displayStacks = displayStacks;
+        }
+
+        /**
+         * @param stacks the stacks of the catalogue. These are copied, so the passed map may be used afterwards.
+         */
+        public static Catalogue of(Map<ResourceLocation, ItemStack> stacks) {
+            ImmutableMap.Builder<ResourceLocation, ItemStack> copies = ImmutableMap.builder();
+            Map<EquipmentSlot, ImmutableList.Builder<ItemStack>> builders = new EnumMap<>(EquipmentSlot.class);
+
+            for (Map.Entry<ResourceLocation, ItemStack> entry : stacks.entrySet()) {
+                ItemStack copy = entry.getValue().copy();
+                copies.put(entry.getKey(), copy);
+
+                if (!(copy.getItem() instanceof ClothingItem clothingItem)) continue;
+
+                builders.computeIfAbsent(clothingItem.getSlot(copy), (slot) -> ImmutableList.builder()).add(copy);
+            }
+
+            ImmutableMap.Builder<EquipmentSlot, ImmutableList<ItemStack>> displayStacks = ImmutableMap.builder();
+            builders.forEach((slot, builder) -> displayStacks.put(slot, builder.build()));
+
+            return new Catalogue(copies.build(), displayStacks.build());
+        }
+
+        /**
+         * @return copies of the stacks of every entry in this.
+         */
+        public ImmutableMap<ResourceLocation, ItemStack> getStacks() {
+            ImmutableMap.Builder<ResourceLocation, ItemStack> toReturn = ImmutableMap.builder();
+
+            for (Map.Entry<ResourceLocation, ItemStack> entry : this.stacks.entrySet()) {
+                toReturn.put(entry.getKey(), entry.getValue().copy());
+            }
+
+            return toReturn.build();
+        }
+
+        /**
+         * @return a copy of the stack of the passed entry, or {@link ItemStack#EMPTY} if this has no such entry.
+         */
+        @NotNull
+        public ItemStack getStack(ResourceLocation entryLocation) {
+            ItemStack toReturn = this.stacks.get(entryLocation);
+            return toReturn == null ? ItemStack.EMPTY : toReturn.copy();
+        }
+
+        /**
+         * @return copies of the stacks in this worn on the passed slot.
+         */
+        public List<ItemStack> getStacks(EquipmentSlot slot) {
+            ImmutableList<ItemStack> stacks = this.displayStacks.getOrDefault(slot, ImmutableList.of());
+            List<ItemStack> toReturn = new ArrayList<>(stacks.size());
+
+            for (ItemStack stack : stacks) {
+                toReturn.add(stack.copy());
+            }
+
+            return toReturn;
+        }
+
+        /**
+         * Removes every property from the passed clothing properties which is equal to that of the passed entry, other
+         * than its name. Used to save stacks as template references without copying the template.
+         * <br><br>
+         * The {@link #PALETTE_KEYS} are only removed if all of them are equal to those of the entry; otherwise all of
+         * them are kept.
+         * @return false if this has no such entry for the passed item, in which case nothing is removed.
+         * @see ClothingItem#writeTemplateReference(CompoundTag)
+         */
+        public boolean stripTemplate(ResourceLocation entryLocation, Item item, CompoundTag properties) {
+            CompoundTag template = this.getTemplateProperties(entryLocation, item);
+            if (template == null) return false;
+
+            boolean paletteMatches = true;
+            for (String key : PALETTE_KEYS) {
+                if (Objects.equals(properties.get(key), template.get(key))) continue;
+                paletteMatches = false;
+                break;
+            }
+
+            for (String key : template.getAllKeys()) {
+                if (key.equals(CLOTHING_NAME_KEY) || PALETTE_KEYS.contains(key)) continue;
+                if (Objects.equals(properties.get(key), template.get(key))) properties.remove(key);
+            }
+
+            if (paletteMatches) PALETTE_KEYS.forEach(properties::remove);
+
+            return true;
+        }
+
+        /**
+         * Puts a copy of every property of the passed entry which the passed clothing properties lack into them.
+         * <br><br>
+         * The {@link #PALETTE_KEYS} are only filled in if the passed properties lack all of them; a stack keeping any
+         * of them keeps its own palette and the indices into it.
+         * @return false if this has no such entry for the passed item, in which case nothing is added.
+         * @see ClothingItem#resolveTemplateReference(CompoundTag)
+         */
+        public boolean fillFromTemplate(ResourceLocation entryLocation, Item item, CompoundTag properties) {
+            CompoundTag template = this.getTemplateProperties(entryLocation, item);
+            if (template == null) return false;
+
+            boolean keepsPalette = PALETTE_KEYS.stream().anyMatch(properties::contains);
+
+            for (String key : template.getAllKeys()) {
+                if (properties.contains(key) || key.equals(FINGERPRINT_KEY)) continue;
+                if (keepsPalette && PALETTE_KEYS.contains(key)) continue;
+                properties.put(key, Objects.requireNonNull(template.get(key)).copy());
+            }
+
+            return true;
+        }
+
+        @Nullable
+        protected CompoundTag getTemplateProperties(ResourceLocation entryLocation, Item item) {
+            ItemStack template = this.stacks.get(entryLocation);
+            if (template == null || template.getItem() != item || template.getTag() == null) return null;
+
+            return template.getTag().getCompound(CLOTHING_PROPERTY_NBT_KEY);
+        }
     }
 }
@@ -12,7 +12,7 @@ import java.util.Objects;
  * This is a functional interface whose purpose is to store "directions" for putting NBT data into an {@link ItemStack}
  * whose item corresponds to a {@link ClothingItem}. These stacks are then loaded into the client's creative menu tab.
  * @see ClothingItem#fillItemCategory(CreativeModeTab, NonNullList)
- * @see ClothingEntryLoader#getStacks()
+ * @see ClothingEntryLoader#getStacks(ClothingItem)
  */
 @FunctionalInterface
 public interface NbtStackInitializer {
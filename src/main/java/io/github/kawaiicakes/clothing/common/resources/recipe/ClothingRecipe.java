@@ -21,6 +21,7 @@ import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.ShapedRecipe;
 import net.minecraftforge.common.crafting.CraftingHelper;
+import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -108,7 +109,9 @@ public class ClothingRecipe extends ShapedRecipe {
         public static ItemStack getItemStack(JsonObject json) {
             ResourceLocation entryName = new ResourceLocation(GsonHelper.getAsString(json, "clothing"));
 
-            ItemStack defaultStackForEntry = ClothingEntryLoader.getInstance().getStack(entryName);
+            ItemStack defaultStackForEntry = ClothingEntryLoader.getInstance()
+                    .getCatalogue(LogicalSide.SERVER)
+                    .getStack(entryName);
 
             CompoundTag stackAsNbt = new CompoundTag();
 
@@ -183,7 +186,10 @@ public class ClothingRecipe extends ShapedRecipe {
                         : mergedProperties.getInt(TAG_COLOR);
 
                 attributes = json.has(ATTRIBUTES_KEY)
-                        ? asNbt(ClothingEntryLoader.deserializeAttributes(json.getAsJsonObject(ATTRIBUTES_KEY)))
+                        ? asNbt(ClothingEntryLoader.deserializeAttributes(
+                                new ResourceLocation(GsonHelper.getAsString(json, "clothing")),
+                                json.getAsJsonObject(ATTRIBUTES_KEY)
+                        ))
                         : mergedProperties.getCompound(ATTRIBUTES_KEY);
 
                 equipSound = json.has(EQUIP_SOUND_KEY)
@@ -0,0 +1,24 @@
+package io.github.kawaiicakes.clothing.mixin;
+
+import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.ItemStack;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(ItemStack.class)
+public abstract class ItemStackMixin {
+    /**
+     * {@link ItemStack#save(CompoundTag)} writes a copy of the stack tag, so the live stack keeps its full properties.
+     */
+    @Inject(method = "save", at = @At("RETURN"))
+    private void saveClothingTemplateReference(CompoundTag pCompoundTag, CallbackInfoReturnable<CompoundTag> cir) {
+        if (!(((ItemStack) (Object) this).getItem() instanceof ClothingItem clothingItem)) return;
+        if (!pCompoundTag.contains("tag", Tag.TAG_COMPOUND)) return;
+
+        clothingItem.writeTemplateReference(pCompoundTag.getCompound("tag"));
+    }
+}
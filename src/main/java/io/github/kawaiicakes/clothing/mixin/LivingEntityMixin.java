@@ -1,6 +1,13 @@
 package io.github.kawaiicakes.clothing.mixin;
 
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
 import io.github.kawaiicakes.clothing.common.item.ClothingItem;
+import io.github.kawaiicakes.clothing.common.network.ClothingPackets;
+import io.github.kawaiicakes.clothing.common.network.ClothingPackets.S2CClothingAppearancePacket;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
+import net.minecraft.server.level.ServerChunkCache;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
@@ -23,4 +30,30 @@ public abstract class LivingEntityMixin extends Entity {
             this.playSound(clothingItem.getEquipSound(itemstack));
         }
     }
+
+    /**
+     * Takes the clothing out of the equipment broadcast to trackers and sends its appearance instead.
+     */
+    @WrapOperation(
+            method = "handleEquipmentChanges",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/server/level/ServerChunkCache;broadcast"
+                            + "(Lnet/minecraft/world/entity/Entity;Lnet/minecraft/network/protocol/Packet;)V"
+            )
+    )
+    private void broadcastClothingAppearance(
+            ServerChunkCache instance, Entity pEntity, Packet<?> pPacket, Operation<Void> original
+    ) {
+        if (!(pPacket instanceof ClientboundSetEquipmentPacket equipmentPacket)) {
+            original.call(instance, pEntity, pPacket);
+            return;
+        }
+
+        S2CClothingAppearancePacket.split(
+                equipmentPacket,
+                (others) -> original.call(instance, pEntity, others),
+                (clothing) -> ClothingPackets.sendToTracking(clothing, pEntity)
+        );
+    }
 }
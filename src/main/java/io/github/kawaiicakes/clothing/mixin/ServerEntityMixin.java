@@ -0,0 +1,39 @@
+package io.github.kawaiicakes.clothing.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import io.github.kawaiicakes.clothing.common.network.ClothingPackets;
+import io.github.kawaiicakes.clothing.common.network.ClothingPackets.S2CClothingAppearancePacket;
+import net.minecraft.network.protocol.game.ClientboundSetEquipmentPacket;
+import net.minecraft.server.level.ServerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+import java.util.function.Consumer;
+
+@Mixin(ServerEntity.class)
+public abstract class ServerEntityMixin {
+    /**
+     * Takes the clothing out of the equipment sent to a player starting to track an entity and sends its appearance
+     * instead; as {@link LivingEntityMixin} does for the equipment broadcast when it changes.
+     */
+    @WrapOperation(
+            method = "sendPairingData",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Ljava/util/function/Consumer;accept(Ljava/lang/Object;)V"
+            )
+    )
+    private void sendClothingAppearance(Consumer<Object> instance, Object pPacket, Operation<Void> original) {
+        if (!(pPacket instanceof ClientboundSetEquipmentPacket equipmentPacket)) {
+            original.call(instance, pPacket);
+            return;
+        }
+
+        S2CClothingAppearancePacket.split(
+                equipmentPacket,
+                (others) -> original.call(instance, others),
+                (clothing) -> original.call(instance, ClothingPackets.toVanillaPacket(clothing))
+        );
+    }
+}
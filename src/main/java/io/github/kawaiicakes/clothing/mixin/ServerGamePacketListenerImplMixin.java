@@ -0,0 +1,39 @@
+package io.github.kawaiicakes.clothing.mixin;
+
+import io.github.kawaiicakes.clothing.common.ClothingValidator;
+import net.minecraft.network.protocol.game.ServerboundSetCreativeModeSlotPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerGamePacketListenerImpl.class)
+public abstract class ServerGamePacketListenerImplMixin {
+    @Shadow
+    public ServerPlayer player;
+
+    /**
+     * Clothing set by a creative client is validated before it is placed. The packet of a rejected stack is ignored,
+     * leaving the slot as it was, and the inventory is sent back to the client so that it shows the slot as it is.
+     */
+    @Inject(
+            method = "handleSetCreativeModeSlot",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/network/protocol/PacketUtils;ensureRunningOnSameThread("
+                            + "Lnet/minecraft/network/protocol/Packet;Lnet/minecraft/network/PacketListener;"
+                            + "Lnet/minecraft/server/level/ServerLevel;)V",
+                    shift = At.Shift.AFTER
+            ),
+            cancellable = true
+    )
+    private void validateCreativeClothing(ServerboundSetCreativeModeSlotPacket pPacket, CallbackInfo ci) {
+        if (ClothingValidator.validate(pPacket.getItem()) != ClothingValidator.Result.REJECTED) return;
+
+        ci.cancel();
+        if (pPacket.getSlotNum() >= 0) this.player.inventoryMenu.sendAllDataToRemote();
+    }
+}